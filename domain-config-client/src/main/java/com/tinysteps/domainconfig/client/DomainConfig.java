@@ -0,0 +1,261 @@
+package com.tinysteps.domainconfig.client;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A domain configuration as served by {@code GET /api/domain-config/{domainName}}.
+ * Unknown properties are ignored, so older clients keep working when the
+ * service adds fields.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DomainConfig {
+    
+    private String id;
+    private String domainName;
+    private String displayName;
+    private String description;
+    private DomainEntities entities;
+    private DomainWorkflows workflows;
+    private DomainTerminology terminology;
+    private Map<String, Object> customSettings;
+    private Boolean isActive;
+    private Long version;
+    private Long revision;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public String getDomainName() { return domainName; }
+    public void setDomainName(String domainName) { this.domainName = domainName; }
+    
+    public String getDisplayName() { return displayName; }
+    public void setDisplayName(String displayName) { this.displayName = displayName; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public DomainEntities getEntities() { return entities; }
+    public void setEntities(DomainEntities entities) { this.entities = entities; }
+    
+    public DomainWorkflows getWorkflows() { return workflows; }
+    public void setWorkflows(DomainWorkflows workflows) { this.workflows = workflows; }
+    
+    public DomainTerminology getTerminology() { return terminology; }
+    public void setTerminology(DomainTerminology terminology) { this.terminology = terminology; }
+    
+    public Map<String, Object> getCustomSettings() { return customSettings; }
+    public void setCustomSettings(Map<String, Object> customSettings) { this.customSettings = customSettings; }
+    
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    public Long getRevision() { return revision; }
+    public void setRevision(Long revision) { this.revision = revision; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    // Nested classes for JSON structure
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class DomainEntities {
+        @JsonProperty("user_roles")
+        private List<UserRole> userRoles;
+        
+        @JsonProperty("context_type")
+        private String contextType;
+        
+        @JsonProperty("transaction_type")
+        private String transactionType;
+        
+        @JsonProperty("resource_type")
+        private String resourceType;
+        
+        @JsonProperty("secondary_user_roles")
+        private List<String> secondaryUserRoles;
+        
+        // Getters and Setters
+        public List<UserRole> getUserRoles() { return userRoles; }
+        public void setUserRoles(List<UserRole> userRoles) { this.userRoles = userRoles; }
+        
+        public String getContextType() { return contextType; }
+        public void setContextType(String contextType) { this.contextType = contextType; }
+        
+        public String getTransactionType() { return transactionType; }
+        public void setTransactionType(String transactionType) { this.transactionType = transactionType; }
+        
+        public String getResourceType() { return resourceType; }
+        public void setResourceType(String resourceType) { this.resourceType = resourceType; }
+        
+        public List<String> getSecondaryUserRoles() { return secondaryUserRoles; }
+        public void setSecondaryUserRoles(List<String> secondaryUserRoles) { this.secondaryUserRoles = secondaryUserRoles; }
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class DomainWorkflows {
+        @JsonProperty("transaction_states")
+        private List<TransactionState> transactionStates;
+        
+        @JsonProperty("payment_required")
+        private Boolean paymentRequired;
+        
+        @JsonProperty("location_required")
+        private Boolean locationRequired;
+        
+        @JsonProperty("approval_workflow")
+        private Boolean approvalWorkflow;
+        
+        @JsonProperty("rating_system")
+        private Boolean ratingSystem;
+        
+        // Getters and Setters
+        public List<TransactionState> getTransactionStates() { return transactionStates; }
+        public void setTransactionStates(List<TransactionState> transactionStates) { this.transactionStates = transactionStates; }
+        
+        public Boolean getPaymentRequired() { return paymentRequired; }
+        public void setPaymentRequired(Boolean paymentRequired) { this.paymentRequired = paymentRequired; }
+        
+        public Boolean getLocationRequired() { return locationRequired; }
+        public void setLocationRequired(Boolean locationRequired) { this.locationRequired = locationRequired; }
+        
+        public Boolean getApprovalWorkflow() { return approvalWorkflow; }
+        public void setApprovalWorkflow(Boolean approvalWorkflow) { this.approvalWorkflow = approvalWorkflow; }
+        
+        public Boolean getRatingSystem() { return ratingSystem; }
+        public void setRatingSystem(Boolean ratingSystem) { this.ratingSystem = ratingSystem; }
+    }
+    
+    /**
+     * A user role and the permissions it grants; a bare string, as sent by
+     * older services, is read as a role without permissions
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class UserRole {
+        @JsonProperty("role")
+        private String role;
+        
+        @JsonProperty("display_name")
+        private String displayName;
+        
+        @JsonProperty("permissions")
+        private List<String> permissions;
+        
+        public UserRole() {
+        }
+        
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        public UserRole(String role) {
+            this.role = role;
+        }
+        
+        // Getters and Setters
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
+        
+        public String getDisplayName() { return displayName; }
+        public void setDisplayName(String displayName) { this.displayName = displayName; }
+        
+        public List<String> getPermissions() { return permissions; }
+        public void setPermissions(List<String> permissions) { this.permissions = permissions; }
+    }
+    
+    /**
+     * One workflow state and the states it may move to next; a bare string,
+     * as sent by older services, is read as a state without transitions
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class TransactionState {
+        @JsonProperty("state")
+        private String state;
+        
+        @JsonProperty("display_name")
+        private String displayName;
+        
+        @JsonProperty("description")
+        private String description;
+        
+        @JsonProperty("next_states")
+        private List<String> nextStates;
+        
+        public TransactionState() {
+        }
+        
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        public TransactionState(String state) {
+            this.state = state;
+        }
+        
+        // Getters and Setters
+        public String getState() { return state; }
+        public void setState(String state) { this.state = state; }
+        
+        public String getDisplayName() { return displayName; }
+        public void setDisplayName(String displayName) { this.displayName = displayName; }
+        
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+        
+        public List<String> getNextStates() { return nextStates; }
+        public void setNextStates(List<String> nextStates) { this.nextStates = nextStates; }
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class DomainTerminology {
+        @JsonProperty("user_primary")
+        private String userPrimary;
+        
+        @JsonProperty("user_secondary")
+        private String userSecondary;
+        
+        @JsonProperty("context")
+        private String context;
+        
+        @JsonProperty("transaction")
+        private String transaction;
+        
+        @JsonProperty("resource")
+        private String resource;
+        
+        @JsonProperty("context_plural")
+        private String contextPlural;
+        
+        @JsonProperty("transaction_plural")
+        private String transactionPlural;
+        
+        // Getters and Setters
+        public String getUserPrimary() { return userPrimary; }
+        public void setUserPrimary(String userPrimary) { this.userPrimary = userPrimary; }
+        
+        public String getUserSecondary() { return userSecondary; }
+        public void setUserSecondary(String userSecondary) { this.userSecondary = userSecondary; }
+        
+        public String getContext() { return context; }
+        public void setContext(String context) { this.context = context; }
+        
+        public String getTransaction() { return transaction; }
+        public void setTransaction(String transaction) { this.transaction = transaction; }
+        
+        public String getResource() { return resource; }
+        public void setResource(String resource) { this.resource = resource; }
+        
+        public String getContextPlural() { return contextPlural; }
+        public void setContextPlural(String contextPlural) { this.contextPlural = contextPlural; }
+        
+        public String getTransactionPlural() { return transactionPlural; }
+        public void setTransactionPlural(String transactionPlural) { this.transactionPlural = transactionPlural; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,293 @@
+package com.tinysteps.domainconfig.client;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Client for the domain configuration service with a local near-cache.
+ * <p>
+ * A lookup is answered from memory while its entry is fresh. Once the entry
+ * is stale but still inside the stale-while-revalidate window, the cached
+ * copy is returned at once and revalidated in the background with
+ * {@code If-None-Match}, so an unchanged config costs one 304 and no
+ * parsing. Older entries are revalidated before returning. Concurrent
+ * lookups of one domain share a single request, and if the service cannot
+ * be reached the last good copy is returned whatever its age.
+ * <pre>
+ * DomainConfigClient client = DomainConfigClient.builder("http://domain-config-service:8090")
+ *     .freshFor(Duration.ofSeconds(30))
+ *     .build();
+ * Optional&lt;DomainConfig&gt; healthcare = client.getDomainConfig("healthcare");
+ * </pre>
+ */
+public class DomainConfigClient implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainConfigClient.class);
+    
+    // CBOR parses faster than JSON; the service falls back to JSON if it cannot produce it
+    private static final String ACCEPT = "application/cbor, application/json;q=0.5";
+    
+    private final URI baseUri;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final long freshNanos;
+    private final long staleNanos;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    
+    private DomainConfigClient(Builder builder) {
+        this.baseUri = URI.create(builder.baseUrl.replaceAll("/+$", "") + "/api/domain-config/");
+        this.httpClient = builder.httpClient != null ? builder.httpClient : HttpClient.newBuilder()
+            .connectTimeout(builder.connectTimeout)
+            .build();
+        this.requestTimeout = builder.requestTimeout;
+        this.freshNanos = builder.freshFor.toNanos();
+        this.staleNanos = builder.staleWhileRevalidate.toNanos();
+        if (builder.executor != null) {
+            this.executor = builder.executor;
+            this.ownedExecutor = null;
+        } else {
+            this.ownedExecutor = Executors.newFixedThreadPool(2, runnable -> {
+                Thread thread = new Thread(runnable, "domain-config-revalidate");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownedExecutor;
+        }
+        this.jsonMapper = configure(new ObjectMapper());
+        this.cborMapper = configure(new CBORMapper());
+    }
+    
+    public static Builder builder(String baseUrl) {
+        return new Builder(baseUrl);
+    }
+    
+    /**
+     * Get the active configuration of a domain, empty if the service does not know it
+     *
+     * @throws DomainConfigClientException if the service cannot be reached and nothing is cached
+     */
+    public Optional<DomainConfig> getDomainConfig(String domainName) {
+        Entry entry = entries.get(domainName);
+        if (entry != null) {
+            long age = System.nanoTime() - entry.fetchedAt;
+            if (age < freshNanos) {
+                return entry.value;
+            }
+            if (age < freshNanos + staleNanos) {
+                revalidate(domainName, executor);
+                return entry.value;
+            }
+        }
+        
+        try {
+            return revalidate(domainName, Runnable::run).join().value;
+        } catch (CompletionException e) {
+            Entry lastGood = entries.get(domainName);
+            if (lastGood != null) {
+                logger.warn("Serving last good configuration of domain '{}': {}", domainName, e.getCause().toString());
+                return lastGood.value;
+            }
+            throw new DomainConfigClientException("Could not fetch configuration of domain '" + domainName + "'", e.getCause());
+        }
+    }
+    
+    /**
+     * Drop the cached copy of a domain, e.g. after changing it through the service
+     */
+    public void invalidate(String domainName) {
+        entries.remove(domainName);
+    }
+    
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Start a revalidation of the domain on the given executor, or join the one already running
+     */
+    private CompletableFuture<Entry> revalidate(String domainName, Executor runOn) {
+        CompletableFuture<Entry> revalidation = new CompletableFuture<>();
+        CompletableFuture<Entry> running = inFlight.putIfAbsent(domainName, revalidation);
+        if (running != null) {
+            return running;
+        }
+        try {
+            runOn.execute(() -> {
+                try {
+                    Entry fetched = fetch(domainName, entries.get(domainName));
+                    entries.put(domainName, fetched);
+                    revalidation.complete(fetched);
+                } catch (Exception e) {
+                    if (runOn == executor) {
+                        logger.warn("Background revalidation of domain '{}' failed: {}", domainName, e.toString());
+                    }
+                    revalidation.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(domainName, revalidation);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rejected by the executor; the stale copy is served until the next attempt
+            inFlight.remove(domainName, revalidation);
+            revalidation.completeExceptionally(e);
+        }
+        return revalidation;
+    }
+    
+    private Entry fetch(String domainName, Entry current) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(encode(domainName)))
+            .timeout(requestTimeout)
+            .header("Accept", ACCEPT)
+            .header("Accept-Encoding", "gzip");
+        if (current != null && current.etag != null) {
+            request.header("If-None-Match", current.etag);
+        }
+        
+        HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        long now = System.nanoTime();
+        switch (response.statusCode()) {
+            case 200:
+                return new Entry(Optional.of(decode(response)), response.headers().firstValue("ETag").orElse(null), now);
+            case 304:
+                if (current == null) {
+                    throw new DomainConfigClientException("Unexpected 304 for uncached domain '" + domainName + "'");
+                }
+                return new Entry(current.value, current.etag, now);
+            case 404:
+                return new Entry(Optional.empty(), null, now);
+            default:
+                throw new DomainConfigClientException(
+                    "Unexpected status " + response.statusCode() + " fetching domain '" + domainName + "'");
+        }
+    }
+    
+    private DomainConfig decode(HttpResponse<byte[]> response) throws IOException {
+        InputStream body = new ByteArrayInputStream(response.body());
+        if (response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent()) {
+            body = new GZIPInputStream(body);
+        }
+        boolean cbor = response.headers().firstValue("Content-Type").filter(type -> type.startsWith("application/cbor")).isPresent();
+        try (InputStream in = body) {
+            return (cbor ? cborMapper : jsonMapper).readValue(in, DomainConfig.class);
+        }
+    }
+    
+    private static String encode(String domainName) {
+        return URLEncoder.encode(domainName, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+    
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        return mapper.registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+    
+    /**
+     * Immutable cache entry; an empty value records that the domain does not exist
+     */
+    private static final class Entry {
+        
+        final Optional<DomainConfig> value;
+        final String etag;
+        final long fetchedAt;
+        
+        Entry(Optional<DomainConfig> value, String etag, long fetchedAt) {
+            this.value = value;
+            this.etag = etag;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+    
+    public static final class Builder {
+        
+        private final String baseUrl;
+        private Duration freshFor = Duration.ofSeconds(30);
+        private Duration staleWhileRevalidate = Duration.ofMinutes(5);
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration requestTimeout = Duration.ofSeconds(5);
+        private HttpClient httpClient;
+        private Executor executor;
+        
+        private Builder(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+        
+        /**
+         * How long a fetched copy is served without asking the service (default 30s)
+         */
+        public Builder freshFor(Duration freshFor) {
+            this.freshFor = freshFor;
+            return this;
+        }
+        
+        /**
+         * How long after going stale a copy is still served while it is revalidated
+         * in the background (default 5m); beyond that lookups wait for the service
+         */
+        public Builder staleWhileRevalidate(Duration staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+            return this;
+        }
+        
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+        
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+        
+        /**
+         * Use a preconfigured HTTP client; the connect timeout is then ignored
+         */
+        public Builder httpClient(HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+        
+        /**
+         * Run background revalidations on the given executor instead of a private pool
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+        
+        public DomainConfigClient build() {
+            return new DomainConfigClient(this);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.tinysteps.domainconfig.client;
+
+/**
+ * Thrown when a domain configuration could not be fetched and no earlier
+ * copy is cached to fall back to.
+ */
+public class DomainConfigClientException extends RuntimeException {
+    
+    public DomainConfigClientException(String message) {
+        super(message);
+    }
+    
+    public DomainConfigClientException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
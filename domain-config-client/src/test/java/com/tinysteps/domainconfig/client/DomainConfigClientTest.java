@@ -0,0 +1,181 @@
+package com.tinysteps.domainconfig.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DomainConfigClientTest {
+    
+    private HttpServer server;
+    private String baseUrl;
+    /**
+     * If-None-Match of every request received, null when absent
+     */
+    private final List<String> ifNoneMatchHeaders = new CopyOnWriteArrayList<>();
+    private volatile long revision = 1;
+    
+    /**
+     * Background revalidations, run only when a test says so
+     */
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+    
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/domain-config/", this::serve);
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+    
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+    
+    @Test
+    void freshEntryIsServedWithoutARequest() {
+        try (DomainConfigClient client = client(Duration.ofHours(1), Duration.ofHours(1))) {
+            assertEquals(1L, client.getDomainConfig("healthcare").orElseThrow().getRevision());
+            assertEquals(1L, client.getDomainConfig("healthcare").orElseThrow().getRevision());
+            
+            assertEquals(1, ifNoneMatchHeaders.size());
+            assertTrue(backgroundTasks.isEmpty());
+        }
+    }
+    
+    @Test
+    void staleEntryIsServedAndRevalidatedInTheBackground() {
+        try (DomainConfigClient client = client(Duration.ZERO, Duration.ofHours(1))) {
+            client.getDomainConfig("healthcare");
+            revision = 2;
+            
+            assertEquals(1L, client.getDomainConfig("healthcare").orElseThrow().getRevision());
+            assertEquals(1, ifNoneMatchHeaders.size());
+            assertEquals(1, backgroundTasks.size());
+            
+            runBackgroundTasks();
+            
+            assertEquals("\"r1\"", ifNoneMatchHeaders.get(1));
+            assertEquals(2L, client.getDomainConfig("healthcare").orElseThrow().getRevision());
+        }
+    }
+    
+    @Test
+    void unchangedEntryIsRevalidatedWithNotModified() {
+        try (DomainConfigClient client = client(Duration.ZERO, Duration.ofHours(1))) {
+            DomainConfig first = client.getDomainConfig("healthcare").orElseThrow();
+            
+            client.getDomainConfig("healthcare");
+            runBackgroundTasks();
+            
+            assertEquals("\"r1\"", ifNoneMatchHeaders.get(1));
+            // A 304 keeps the parsed copy instead of decoding a new one
+            assertSame(first, client.getDomainConfig("healthcare").orElseThrow());
+        }
+    }
+    
+    @Test
+    void concurrentStaleLookupsShareOneRevalidation() {
+        try (DomainConfigClient client = client(Duration.ZERO, Duration.ofHours(1))) {
+            client.getDomainConfig("healthcare");
+            
+            client.getDomainConfig("healthcare");
+            client.getDomainConfig("healthcare");
+            
+            assertEquals(1, backgroundTasks.size());
+        }
+    }
+    
+    @Test
+    void expiredEntryIsRevalidatedBeforeReturning() {
+        try (DomainConfigClient client = client(Duration.ZERO, Duration.ZERO)) {
+            client.getDomainConfig("healthcare");
+            revision = 2;
+            
+            assertEquals(2L, client.getDomainConfig("healthcare").orElseThrow().getRevision());
+            assertEquals("\"r1\"", ifNoneMatchHeaders.get(1));
+            assertTrue(backgroundTasks.isEmpty());
+        }
+    }
+    
+    @Test
+    void lastGoodCopyIsServedWhileTheServiceIsDown() {
+        try (DomainConfigClient client = client(Duration.ZERO, Duration.ZERO)) {
+            client.getDomainConfig("healthcare");
+            server.stop(0);
+            
+            assertEquals(1L, client.getDomainConfig("healthcare").orElseThrow().getRevision());
+            assertThrows(DomainConfigClientException.class, () -> client.getDomainConfig("ecommerce"));
+        }
+    }
+    
+    @Test
+    void unknownDomainIsCachedAsEmpty() {
+        try (DomainConfigClient client = client(Duration.ofHours(1), Duration.ofHours(1))) {
+            assertFalse(client.getDomainConfig("unknown").isPresent());
+            assertFalse(client.getDomainConfig("unknown").isPresent());
+            
+            assertEquals(1, ifNoneMatchHeaders.size());
+            assertNull(ifNoneMatchHeaders.get(0));
+        }
+    }
+    
+    private DomainConfigClient client(Duration freshFor, Duration staleWhileRevalidate) {
+        return DomainConfigClient.builder(baseUrl)
+            .freshFor(freshFor)
+            .staleWhileRevalidate(staleWhileRevalidate)
+            .executor(backgroundTasks::add)
+            .build();
+    }
+    
+    private void runBackgroundTasks() {
+        List<Runnable> tasks = new ArrayList<>(backgroundTasks);
+        backgroundTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+    
+    private void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatchHeaders.add(ifNoneMatch);
+            
+            String domainName = exchange.getRequestURI().getPath().substring("/api/domain-config/".length());
+            if (!domainName.equals("healthcare")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            String etag = "\"r" + revision + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            byte[] body = ("{\"domainName\":\"healthcare\",\"revision\":" + revision + ",\"isActive\":true}")
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
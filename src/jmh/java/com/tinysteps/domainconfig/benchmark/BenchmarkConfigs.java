@@ -0,0 +1,123 @@
+package com.tinysteps.domainconfig.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inputs shared by the benchmarks: the bundled sample configurations and
+ * synthetic ones scaled up from the same shape.
+ */
+final class BenchmarkConfigs {
+    
+    private static final String SYNTHETIC_PREFIX = "synthetic-x";
+    
+    private BenchmarkConfigs() {
+    }
+    
+    /**
+     * Load a benchmark input by name: a sample config file name such as
+     * {@code cab-booking-config}, or {@code synthetic-x<scale>}
+     */
+    static DomainConfig load(String name, ObjectMapper objectMapper) throws IOException {
+        if (name.startsWith(SYNTHETIC_PREFIX)) {
+            return synthetic("synthetic-" + name.substring(SYNTHETIC_PREFIX.length()),
+                Integer.parseInt(name.substring(SYNTHETIC_PREFIX.length())));
+        }
+        try (InputStream inputStream = new ClassPathResource("sample-configs/" + name + ".json").getInputStream()) {
+            return objectMapper.readValue(inputStream, DomainConfig.class);
+        }
+    }
+    
+    /**
+     * Build a fully populated configuration whose lists and settings grow
+     * linearly with {@code scale}
+     */
+    static DomainConfig synthetic(String domainName, int scale) {
+        DomainConfig config = new DomainConfig();
+        config.setDomainName(domainName);
+        config.setDisplayName("Synthetic domain " + domainName);
+        config.setDescription("Synthetic configuration generated for benchmarking at scale " + scale);
+        
+        DomainConfig.DomainEntities entities = new DomainConfig.DomainEntities();
+        entities.setUserRoles(roles(4 * scale));
+        entities.setSecondaryUserRoles(names("SECONDARY_ROLE_", scale));
+        entities.setContextType("context_" + (domainName.hashCode() & 7));
+        entities.setTransactionType("transaction_" + (domainName.hashCode() & 3));
+        entities.setResourceType("resource");
+        config.setEntities(entities);
+        
+        DomainConfig.DomainWorkflows workflows = new DomainConfig.DomainWorkflows();
+        workflows.setTransactionStates(states(9 * scale));
+        workflows.setPaymentRequired(true);
+        workflows.setLocationRequired(false);
+        workflows.setApprovalWorkflow(true);
+        workflows.setRatingSystem(true);
+        config.setWorkflows(workflows);
+        
+        DomainConfig.DomainTerminology terminology = new DomainConfig.DomainTerminology();
+        terminology.setUserPrimary("Customer");
+        terminology.setUserSecondary("Provider");
+        terminology.setContext("Location");
+        terminology.setTransaction("Order");
+        terminology.setResource("Item");
+        terminology.setContextPlural("Locations");
+        terminology.setTransactionPlural("Orders");
+        config.setTerminology(terminology);
+        
+        Map<String, Object> customSettings = new LinkedHashMap<>();
+        for (int i = 0; i < 20 * scale; i++) {
+            switch (i % 4) {
+                case 0 -> customSettings.put("flag" + i, i % 8 == 0);
+                case 1 -> customSettings.put("limit" + i, i * 10);
+                case 2 -> customSettings.put("label" + i, "Setting value " + i);
+                default -> customSettings.put("options" + i, names("OPTION_", 4));
+            }
+        }
+        config.setCustomSettings(customSettings);
+        config.setIsActive(true);
+        return config;
+    }
+    
+    /**
+     * Roles granting five permissions each out of a shared pool of {@code 2 * count}
+     */
+    private static List<DomainConfig.UserRole> roles(int count) {
+        List<DomainConfig.UserRole> roles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> permissions = new ArrayList<>(5);
+            for (int j = 0; j < 5; j++) {
+                permissions.add("PERMISSION_" + (i * 3 + j * 7) % (2 * count));
+            }
+            roles.add(new DomainConfig.UserRole("ROLE_" + i, permissions));
+        }
+        return roles;
+    }
+    
+    /**
+     * States chained one after the other, each also able to move to the last one
+     */
+    private static List<DomainConfig.TransactionState> states(int count) {
+        List<DomainConfig.TransactionState> states = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> nextStates = i + 1 < count ? List.of("STATE_" + (i + 1), "STATE_" + (count - 1)) : List.of();
+            states.add(new DomainConfig.TransactionState("STATE_" + i, nextStates));
+        }
+        return states;
+    }
+    
+    private static List<String> names(String prefix, int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(prefix + i);
+        }
+        return names;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.tinysteps.domainconfig.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinysteps.domainconfig.config.ApplicationConfig;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.service.DomainConfigInterner;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the retained heap per cached domain, measured with JOL, for
+ * configurations as read from the database and for the compact copies built
+ * by {@link DomainConfigInterner}. Every domain is parsed from its own JSON,
+ * as the jsonb columns are, so nothing is shared unless interning shares it.
+ * Not a JMH benchmark; run it through the {@code benchmark} profile with
+ * {@code -Dbenchmark.main=com.tinysteps.domainconfig.benchmark.CacheFootprint}.
+ */
+public final class CacheFootprint {
+    
+    private static final String[] SAMPLES = {"healthcare-config", "ecommerce-config", "cab-booking-config"};
+    
+    private CacheFootprint() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        ObjectMapper objectMapper = new ApplicationConfig().objectMapper();
+        List<byte[]> templates = new ArrayList<>();
+        for (String sample : SAMPLES) {
+            templates.add(objectMapper.writeValueAsBytes(BenchmarkConfigs.load(sample, objectMapper)));
+        }
+        templates.add(objectMapper.writeValueAsBytes(BenchmarkConfigs.synthetic("synthetic", 1)));
+        
+        System.out.printf("%8s %18s %18s %8s%n", "Domains", "Loaded B/domain", "Compact B/domain", "Saved");
+        for (int domains : new int[] {1_000, 10_000}) {
+            List<DomainConfig> loaded = new ArrayList<>(domains);
+            for (int i = 0; i < domains; i++) {
+                DomainConfig config = objectMapper.readValue(templates.get(i % templates.size()), DomainConfig.class);
+                config.setDomainName("domain-" + i);
+                loaded.add(config);
+            }
+            List<DomainConfig> compact = new ArrayList<>(domains);
+            for (DomainConfig config : loaded) {
+                compact.add(DomainConfigInterner.compact(config));
+            }
+            
+            long loadedBytes = GraphLayout.parseInstance(loaded).totalSize();
+            long compactBytes = GraphLayout.parseInstance(compact).totalSize();
+            System.out.printf("%8d %18d %18d %7.1f%%%n", domains, loadedBytes / domains, compactBytes / domains,
+                100.0 * (loadedBytes - compactBytes) / loadedBytes);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.tinysteps.domainconfig.benchmark;
+
+import com.tinysteps.domainconfig.model.DomainConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a cache hit at each layer: a {@code @Cacheable} proxy, the Spring
+ * {@link CacheManager} abstraction, and the native Caffeine cache beneath it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CacheLookupBenchmark {
+    
+    private static final int DOMAIN_COUNT = 1000;
+    private static final String CACHE_NAME = "domainConfigs";
+    
+    private AnnotationConfigApplicationContext context;
+    private CacheManager cacheManager;
+    private Cache springCache;
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache;
+    private CachedLookup cachedLookup;
+    private String[] keys;
+    
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+        
+        String nextKey(String[] keys) {
+            next = (next + 1) & (1024 - 1);
+            return keys[next % keys.length];
+        }
+    }
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(CacheContext.class);
+        cacheManager = context.getBean(CacheManager.class);
+        springCache = cacheManager.getCache(CACHE_NAME);
+        caffeineCache = ((CaffeineCache) springCache).getNativeCache();
+        cachedLookup = context.getBean(CachedLookup.class);
+        
+        keys = new String[DOMAIN_COUNT];
+        for (int i = 0; i < DOMAIN_COUNT; i++) {
+            keys[i] = "domain-" + i;
+            // Populate through the proxy so every layer sees the same entries
+            cachedLookup.getDomainConfig(keys[i]);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public Object cacheableProxy(Cursor cursor) {
+        return cachedLookup.getDomainConfig(cursor.nextKey(keys));
+    }
+    
+    @Benchmark
+    public Object cacheManagerLookup(Cursor cursor) {
+        return cacheManager.getCache(CACHE_NAME).get(cursor.nextKey(keys));
+    }
+    
+    @Benchmark
+    public Object springCacheGet(Cursor cursor) {
+        return springCache.get(cursor.nextKey(keys));
+    }
+    
+    @Benchmark
+    public Object caffeineGetIfPresent(Cursor cursor) {
+        return caffeineCache.getIfPresent(cursor.nextKey(keys));
+    }
+    
+    /**
+     * Mirrors the cache setup of {@code ApplicationConfig} without the rest of the application
+     */
+    @Configuration
+    @EnableCaching
+    static class CacheContext {
+        
+        @Bean
+        public CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+            cacheManager.setCacheNames(List.of(CACHE_NAME));
+            cacheManager.setCacheSpecification("maximumSize=1000,expireAfterWrite=1h,recordStats");
+            return cacheManager;
+        }
+        
+        @Bean
+        public CachedLookup cachedLookup() {
+            return new CachedLookup();
+        }
+    }
+    
+    public static class CachedLookup {
+        
+        @Cacheable(value = CACHE_NAME, key = "#domainName", sync = true)
+        public DomainConfig getDomainConfig(String domainName) {
+            return BenchmarkConfigs.synthetic(domainName, 1);
+        }
+    }
+}
\ No newline at end of file
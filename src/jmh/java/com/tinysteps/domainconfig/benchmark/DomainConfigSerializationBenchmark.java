@@ -0,0 +1,68 @@
+package com.tinysteps.domainconfig.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tinysteps.domainconfig.config.ApplicationConfig;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization and deserialization of a single {@link DomainConfig}
+ * with the application's ObjectMapper, pretty printed and compact.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DomainConfigSerializationBenchmark {
+    
+    @Param({"healthcare-config", "ecommerce-config", "cab-booking-config", "synthetic-x10", "synthetic-x100"})
+    public String config;
+    
+    private ObjectMapper objectMapper;
+    private ObjectWriter compactWriter;
+    private ObjectReader reader;
+    private DomainConfig domainConfig;
+    private byte[] json;
+    
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ApplicationConfig().objectMapper();
+        compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        reader = objectMapper.readerFor(DomainConfig.class);
+        domainConfig = BenchmarkConfigs.load(config, objectMapper);
+        json = compactWriter.writeValueAsBytes(domainConfig);
+    }
+    
+    @Benchmark
+    public byte[] serializePretty() throws IOException {
+        return objectMapper.writeValueAsBytes(domainConfig);
+    }
+    
+    @Benchmark
+    public byte[] serializeCompact() throws IOException {
+        return compactWriter.writeValueAsBytes(domainConfig);
+    }
+    
+    @Benchmark
+    public DomainConfig deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
\ No newline at end of file
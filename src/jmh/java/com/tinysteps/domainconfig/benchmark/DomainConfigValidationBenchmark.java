@@ -0,0 +1,50 @@
+package com.tinysteps.domainconfig.benchmark;
+
+import com.tinysteps.domainconfig.config.ApplicationConfig;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.service.DomainConfigService;
+import com.tinysteps.domainconfig.service.DomainConfigValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The required-field check behind {@link DomainConfigService#validateDomainConfig};
+ * it touches no injected collaborators, so the validator is used unwired.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DomainConfigValidationBenchmark {
+    
+    @Param({"healthcare-config", "ecommerce-config", "cab-booking-config", "synthetic-x10", "synthetic-x100"})
+    public String config;
+    
+    private DomainConfigValidator domainConfigValidator;
+    private DomainConfig domainConfig;
+    
+    @Setup
+    public void setUp() throws IOException {
+        domainConfigValidator = new DomainConfigValidator();
+        domainConfig = BenchmarkConfigs.load(config, new ApplicationConfig().objectMapper());
+    }
+    
+    @Benchmark
+    public boolean validate() {
+        return domainConfigValidator.findMissingField(domainConfig) == null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.tinysteps.domainconfig.benchmark;
+
+import com.tinysteps.domainconfig.config.ApplicationConfig;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.model.RolePermissions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A permission check against the compiled {@link RolePermissions} versus
+ * walking the configured role list. The role checked is the last one and
+ * the permission its last, the worst case for the walk; with the default
+ * {@code -prof gc} the compiled check should show no allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RolePermissionBenchmark {
+    
+    @Param({"cab-booking-config", "synthetic-x10", "synthetic-x100"})
+    public String config;
+    
+    private List<DomainConfig.UserRole> userRoles;
+    private RolePermissions rolePermissions;
+    private String role;
+    private String permission;
+    
+    @Setup
+    public void setUp() throws IOException {
+        userRoles = BenchmarkConfigs.load(config, new ApplicationConfig().objectMapper())
+            .getEntities().getUserRoles();
+        rolePermissions = RolePermissions.compile(userRoles);
+        DomainConfig.UserRole userRole = userRoles.get(userRoles.size() - 1);
+        role = userRole.getRole();
+        permission = userRole.getPermissions().get(userRole.getPermissions().size() - 1);
+    }
+    
+    @Benchmark
+    public boolean compiled() {
+        return rolePermissions.hasPermission(role, permission);
+    }
+    
+    @Benchmark
+    public boolean listScan() {
+        for (DomainConfig.UserRole userRole : userRoles) {
+            if (userRole.getRole().equals(role)) {
+                return userRole.getPermissions() != null && userRole.getPermissions().contains(permission);
+            }
+        }
+        return false;
+    }
+    
+    @Benchmark
+    public RolePermissions compile() {
+        return RolePermissions.compile(userRoles);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.tinysteps.domainconfig.benchmark;
+
+import com.tinysteps.domainconfig.config.ApplicationConfig;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.model.WorkflowStateMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A transition check against the compiled {@link WorkflowStateMachine}
+ * versus walking the configured state list, as consumers did before the
+ * workflow was compiled. The pair checked is the last state's transition,
+ * the worst case for the walk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WorkflowTransitionBenchmark {
+    
+    @Param({"cab-booking-config", "synthetic-x10", "synthetic-x100"})
+    public String config;
+    
+    private List<DomainConfig.TransactionState> states;
+    private WorkflowStateMachine stateMachine;
+    private String from;
+    private String to;
+    
+    @Setup
+    public void setUp() throws IOException {
+        states = BenchmarkConfigs.load(config, new ApplicationConfig().objectMapper())
+            .getWorkflows().getTransactionStates();
+        stateMachine = WorkflowStateMachine.compile(states);
+        DomainConfig.TransactionState source = states.get(states.size() - 2);
+        from = source.getState();
+        to = source.getNextStates().get(source.getNextStates().size() - 1);
+    }
+    
+    @Benchmark
+    public boolean compiled() {
+        return stateMachine.isAllowed(from, to);
+    }
+    
+    @Benchmark
+    public boolean listScan() {
+        for (DomainConfig.TransactionState state : states) {
+            if (state.getState().equals(from)) {
+                return state.getNextStates() != null && state.getNextStates().contains(to);
+            }
+        }
+        return false;
+    }
+    
+    @Benchmark
+    public WorkflowStateMachine compile() {
+        return WorkflowStateMachine.compile(states);
+    }
+}
\ No newline at end of file
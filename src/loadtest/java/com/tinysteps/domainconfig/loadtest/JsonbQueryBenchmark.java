@@ -0,0 +1,190 @@
+package com.tinysteps.domainconfig.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tinysteps.domainconfig.config.ApplicationConfig;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.Histogram;
+import org.flywaydb.core.Flyway;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Seeds an embedded Postgres with {@code jsonb.domains} synthetic domains
+ * (100k by default) and times the jsonb lookups of {@code DomainConfigRepository}
+ * twice: in their previous form on the V1 schema without indexes, then in
+ * their current form after the remaining migrations have added the indexes.
+ * The plan chosen for each query is printed along with its latencies.
+ * <p>
+ * Context and transaction types are spread wider than in the load test, and
+ * one domain in a hundred requires payment, so each lookup returns a small
+ * slice of the table as it would in a large deployment.
+ */
+public final class JsonbQueryBenchmark {
+    
+    private static final int CONTEXT_TYPES = 1000;
+    private static final int TRANSACTION_TYPES = 100;
+    private static final int BATCH_SIZE = 1000;
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 100;
+    
+    private JsonbQueryBenchmark() {
+    }
+    
+    private static final class Lookup {
+        final String name;
+        final String before;
+        final String after;
+        final String parameter;
+        
+        Lookup(String name, String before, String after, String parameter) {
+            this.name = name;
+            this.before = before;
+            this.after = after;
+            this.parameter = parameter;
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int domains = Integer.getInteger("jsonb.domains", 100_000);
+        List<Lookup> lookups = List.of(
+            new Lookup("byContext",
+                "SELECT * FROM domain_configs WHERE is_active = true AND entities ->> 'context_type' = ?",
+                "SELECT * FROM domain_configs WHERE is_active = true AND entities ->> 'context_type' = ?",
+                "context_" + (CONTEXT_TYPES / 2)),
+            new Lookup("byTransaction",
+                "SELECT * FROM domain_configs WHERE is_active = true AND entities ->> 'transaction_type' = ?",
+                "SELECT * FROM domain_configs WHERE is_active = true AND entities ->> 'transaction_type' = ?",
+                "transaction_" + (TRANSACTION_TYPES / 2)),
+            new Lookup("paymentRequired",
+                "SELECT * FROM domain_configs WHERE is_active = true AND (workflows ->> 'payment_required')::boolean",
+                "SELECT * FROM domain_configs WHERE is_active = true"
+                    + " AND workflows @> CAST('{\"payment_required\": true}' AS jsonb)",
+                null));
+        
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+            
+            System.out.println("Seeding " + domains + " domains...");
+            long start = System.nanoTime();
+            seed(dataSource, domains);
+            System.out.printf("Seeded in %.1fs%n", (System.nanoTime() - start) / 1e9);
+            
+            List<String> beforeResults = new ArrayList<>();
+            for (Lookup lookup : lookups) {
+                beforeResults.add(measure(dataSource, lookup.before, lookup.parameter));
+            }
+            
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            analyze(dataSource);
+            
+            System.out.printf("%n%-16s %-7s %6s %9s %9s %9s  %s%n", "Lookup", "Schema", "Rows", "p50 ms", "p99 ms", "max ms", "Plan");
+            for (int i = 0; i < lookups.size(); i++) {
+                Lookup lookup = lookups.get(i);
+                System.out.printf("%-16s %-7s %s%n", lookup.name, "before", beforeResults.get(i));
+                System.out.printf("%-16s %-7s %s%n", lookup.name, "after", measure(dataSource, lookup.after, lookup.parameter));
+            }
+        }
+    }
+    
+    private static void seed(DataSource dataSource, int domains) throws SQLException, IOException {
+        ObjectMapper objectMapper = new ApplicationConfig().objectMapper().disable(SerializationFeature.INDENT_OUTPUT);
+        String sql = "INSERT INTO domain_configs (id, domain_name, display_name, description, entities, workflows,"
+            + " terminology, custom_settings, is_active, created_at, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?::jsonb, ?::jsonb, ?::jsonb, ?::jsonb, true, now(), now())";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            for (int i = 0; i < domains; i++) {
+                DomainConfig config = SyntheticDomains.create(i);
+                config.getEntities().setContextType("context_" + (i % CONTEXT_TYPES));
+                config.getEntities().setTransactionType("transaction_" + (i % TRANSACTION_TYPES));
+                config.getWorkflows().setPaymentRequired(i % 100 == 0);
+                
+                insert.setString(1, UUID.randomUUID().toString());
+                insert.setString(2, config.getDomainName());
+                insert.setString(3, config.getDisplayName());
+                insert.setString(4, config.getDescription());
+                insert.setString(5, objectMapper.writeValueAsString(config.getEntities()));
+                insert.setString(6, objectMapper.writeValueAsString(config.getWorkflows()));
+                insert.setString(7, objectMapper.writeValueAsString(config.getTerminology()));
+                insert.setString(8, objectMapper.writeValueAsString(config.getCustomSettings()));
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        analyze(dataSource);
+    }
+    
+    private static void analyze(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE domain_configs");
+        }
+    }
+    
+    /**
+     * Run the query until warm, then time full result reads; returns the report columns
+     */
+    private static String measure(DataSource dataSource, String sql, String parameter) throws SQLException {
+        Histogram histogram = new Histogram(3);
+        int rows = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement query = connection.prepareStatement(sql)) {
+            if (parameter != null) {
+                query.setString(1, parameter);
+            }
+            for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+                long start = System.nanoTime();
+                rows = 0;
+                try (ResultSet resultSet = query.executeQuery()) {
+                    while (resultSet.next()) {
+                        resultSet.getString("entities");
+                        rows++;
+                    }
+                }
+                if (run >= WARMUP_RUNS) {
+                    histogram.recordValue((System.nanoTime() - start) / 1000);
+                }
+            }
+            return String.format("%6d %9.2f %9.2f %9.2f  %s", rows,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getMaxValue() / 1000.0,
+                plan(connection, sql, parameter));
+        }
+    }
+    
+    private static String plan(Connection connection, String sql, String parameter) throws SQLException {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            if (parameter != null) {
+                explain.setString(1, parameter);
+            }
+            List<String> nodes = new ArrayList<>();
+            try (ResultSet resultSet = explain.executeQuery()) {
+                while (resultSet.next()) {
+                    String line = resultSet.getString(1).trim();
+                    if (!line.startsWith("Recheck") && !line.startsWith("Filter") && !line.startsWith("Index Cond")) {
+                        nodes.add(line.replaceFirst("^->\\s*", "").replaceFirst("\\s+\\(cost=.*", ""));
+                    }
+                }
+            }
+            return String.join(" <- ", nodes);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,229 @@
+package com.tinysteps.domainconfig.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP driver: each worker thread issues one request at a time,
+ * picking the operation from the weighted mix, and records its latency per
+ * operation in an HdrHistogram.
+ */
+final class LoadDriver {
+    
+    static final int BATCH_SIZE = 10;
+    
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client;
+    
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+    
+    LoadDriver(URI baseUri, LoadTestSettings settings, ObjectMapper objectMapper) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(REQUEST_TIMEOUT)
+            .build();
+        
+        this.operations = settings.mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += settings.mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+    
+    /**
+     * Create the synthetic domains through the public API
+     */
+    void seed() throws IOException, InterruptedException {
+        for (int i = 0; i < settings.domains; i++) {
+            HttpRequest request = jsonRequest(baseUri).POST(bodyOf(SyntheticDomains.create(i))).build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding " + SyntheticDomains.domainName(i) + " failed with "
+                    + response.statusCode() + ": " + response.body());
+            }
+        }
+    }
+    
+    /**
+     * Drive load for the given time, then discard or keep the recorded latencies
+     */
+    void run(Duration duration, boolean keepResults) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Thread> workers = new ArrayList<>(settings.threads);
+        for (int i = 0; i < settings.threads; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    execute(pickOperation());
+                }
+            }, "load-worker-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (!keepResults) {
+            recorders.values().forEach(Recorder::reset);
+            errors.values().forEach(LongAdder::reset);
+        }
+    }
+    
+    /**
+     * Print count, throughput and latency percentiles per operation
+     */
+    void report(Duration elapsed, PrintStream out) {
+        double seconds = elapsed.toMillis() / 1000.0;
+        out.printf("%-40s %9s %7s %10s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Operation operation : operations) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            long errorCount = errors.get(operation).sum();
+            total.add(histogram);
+            totalErrors += errorCount;
+            printRow(out, operation.label, histogram, errorCount, seconds);
+        }
+        printRow(out, "all", total, totalErrors, seconds);
+    }
+    
+    private void printRow(PrintStream out, String label, Histogram histogram, long errorCount, double seconds) {
+        out.printf("%-40s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+            label,
+            histogram.getTotalCount(),
+            errorCount,
+            histogram.getTotalCount() / seconds,
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0);
+    }
+    
+    private Operation pickOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+    
+    private void execute(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(settings.domains);
+        String domainName = SyntheticDomains.domainName(index);
+        HttpRequest request;
+        try {
+            request = buildRequest(operation, index, domainName);
+        } catch (IOException e) {
+            errors.get(operation).increment();
+            return;
+        }
+        
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long micros = (System.nanoTime() - start) / 1000;
+            int status = response.statusCode();
+            if (status >= 200 && status < 300 || status == 304) {
+                recorders.get(operation).recordValue(Math.max(1, micros));
+                if (operation == Operation.GET_CONDITIONAL) {
+                    response.headers().firstValue("ETag").ifPresent(etag -> etags.put(domainName, etag));
+                }
+            } else {
+                errors.get(operation).increment();
+            }
+        } catch (IOException e) {
+            errors.get(operation).increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private HttpRequest buildRequest(Operation operation, int index, String domainName) throws IOException {
+        switch (operation) {
+            case GET:
+                return get(baseUri.resolve(baseUri.getPath() + "/" + domainName)).build();
+            case GET_CONDITIONAL:
+                HttpRequest.Builder conditional = get(baseUri.resolve(baseUri.getPath() + "/" + domainName));
+                String etag = etags.get(domainName);
+                if (etag != null) {
+                    conditional.header("If-None-Match", etag);
+                }
+                return conditional.build();
+            case BATCH:
+                StringJoiner names = new StringJoiner(",");
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    names.add(SyntheticDomains.domainName(ThreadLocalRandom.current().nextInt(settings.domains)));
+                }
+                return get(baseUri.resolve(baseUri.getPath() + "/batch?names=" + names)).build();
+            case LIST:
+                return get(baseUri).build();
+            case BY_CONTEXT:
+                return get(baseUri.resolve(baseUri.getPath() + "/by-context/" + SyntheticDomains.contextType(index))).build();
+            case BY_TRANSACTION:
+                return get(baseUri.resolve(baseUri.getPath() + "/by-transaction/" + SyntheticDomains.transactionType(index))).build();
+            case PAYMENT_REQUIRED:
+                return get(baseUri.resolve(baseUri.getPath() + "/payment-required")).build();
+            case UPDATE:
+                DomainConfig update = SyntheticDomains.create(index);
+                update.setDescription("Updated by the load test at " + System.nanoTime());
+                return jsonRequest(baseUri.resolve(baseUri.getPath() + "/" + domainName))
+                    .PUT(bodyOf(update))
+                    .build();
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+    }
+    
+    private HttpRequest.Builder get(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET();
+    }
+    
+    private HttpRequest.Builder jsonRequest(URI uri) {
+        return HttpRequest.newBuilder(uri)
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json");
+    }
+    
+    private HttpRequest.BodyPublisher bodyOf(DomainConfig config) throws IOException {
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(config));
+    }
+}
\ No newline at end of file
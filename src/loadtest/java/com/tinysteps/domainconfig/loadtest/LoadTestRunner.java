@@ -0,0 +1,70 @@
+package com.tinysteps.domainconfig.loadtest;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tinysteps.domainconfig.DomainConfigServiceApplication;
+import com.tinysteps.domainconfig.config.ApplicationConfig;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Boots the complete service against an embedded Postgres, seeds synthetic
+ * domains and drives the {@code DomainConfigController} endpoints with the
+ * configured concurrency and operation mix. Settings come from
+ * {@code loadtest.*} system properties (see the {@code loadtest} profile).
+ * <p>
+ * The driver runs in the same JVM as the service, so absolute numbers are
+ * pessimistic; they are meant for comparing builds and cache settings.
+ */
+public final class LoadTestRunner {
+    
+    private LoadTestRunner() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        System.out.println("Load test settings: " + settings);
+        
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext service = startService(postgres)) {
+            int port = ((WebServerApplicationContext) service).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver(
+                URI.create("http://localhost:" + port + "/api/domain-config"),
+                settings,
+                new ApplicationConfig().objectMapper().disable(SerializationFeature.INDENT_OUTPUT));
+            
+            System.out.println("Seeding " + settings.domains + " domains...");
+            driver.seed();
+            
+            System.out.println("Warming up for " + settings.warmup.toSeconds() + "s...");
+            driver.run(settings.warmup, false);
+            
+            System.out.println("Measuring for " + settings.duration.toSeconds() + "s...");
+            long start = System.nanoTime();
+            driver.run(settings.duration, true);
+            driver.report(Duration.ofNanos(System.nanoTime() - start), System.out);
+        }
+    }
+    
+    private static ConfigurableApplicationContext startService(EmbeddedPostgres postgres) {
+        // Command line arguments take precedence over application.yml
+        return SpringApplication.run(DomainConfigServiceApplication.class,
+            "--server.port=0",
+            "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+            "--spring.datasource.username=postgres",
+            "--spring.datasource.password=postgres",
+            "--eureka.client.enabled=false",
+            "--spring.cloud.discovery.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.tinysteps.domainconfig=WARN",
+            "--logging.level.org.springframework.cache=WARN",
+            "--logging.level.org.hibernate.SQL=WARN",
+            "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "--logging.file.name=target/loadtest/domain-config-service.log",
+            "--domain.config.snapshot.file=");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.tinysteps.domainconfig.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from {@code loadtest.*} system properties.
+ */
+final class LoadTestSettings {
+    
+    final int domains;
+    final int threads;
+    final Duration warmup;
+    final Duration duration;
+    final Map<Operation, Integer> mix;
+    
+    private LoadTestSettings(int domains, int threads, Duration warmup, Duration duration, Map<Operation, Integer> mix) {
+        this.domains = domains;
+        this.threads = threads;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.mix = mix;
+    }
+    
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+            Integer.getInteger("loadtest.domains", 500),
+            Integer.getInteger("loadtest.threads", 8),
+            Duration.ofSeconds(Long.getLong("loadtest.warmup", 10)),
+            Duration.ofSeconds(Long.getLong("loadtest.duration", 30)),
+            parseMix(System.getProperty("loadtest.mix", "get:55,getConditional:20,list:2,byContext:8,byTransaction:5,paymentRequired:5,update:5")));
+    }
+    
+    /**
+     * Parse a weighted operation mix such as {@code get:80,update:20}
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + entry + "', expected <operation>:<weight>");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromName(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix '" + mix + "' has no positive weights");
+        }
+        return weights;
+    }
+    
+    @Override
+    public String toString() {
+        return "domains=" + domains + ", threads=" + threads + ", warmup=" + warmup.toSeconds()
+            + "s, duration=" + duration.toSeconds() + "s, mix=" + mix;
+    }
+}
\ No newline at end of file
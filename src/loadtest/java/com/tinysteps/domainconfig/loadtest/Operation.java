@@ -0,0 +1,33 @@
+package com.tinysteps.domainconfig.loadtest;
+
+/**
+ * Endpoint calls the load driver can mix.
+ */
+enum Operation {
+    
+    GET("get", "GET /{domainName}"),
+    GET_CONDITIONAL("getConditional", "GET /{domainName} If-None-Match"),
+    BATCH("batch", "GET /batch?names= (" + LoadDriver.BATCH_SIZE + " names)"),
+    LIST("list", "GET /"),
+    BY_CONTEXT("byContext", "GET /by-context/{contextType}"),
+    BY_TRANSACTION("byTransaction", "GET /by-transaction/{transactionType}"),
+    PAYMENT_REQUIRED("paymentRequired", "GET /payment-required"),
+    UPDATE("update", "PUT /{domainName}");
+    
+    final String mixName;
+    final String label;
+    
+    Operation(String mixName, String label) {
+        this.mixName = mixName;
+        this.label = label;
+    }
+    
+    static Operation fromName(String mixName) {
+        for (Operation operation : values()) {
+            if (operation.mixName.equals(mixName)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + mixName + "'");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.tinysteps.domainconfig.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tinysteps.domainconfig.DomainConfigServiceApplication;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.repository.DomainConfigRepository;
+import com.tinysteps.domainconfig.service.DomainConfigService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times the read path of the service against an embedded Postgres:
+ * {@code DomainConfigRepository.findByIsActiveTrueOrderByDomainName} in a
+ * read-write and in a read-only transaction, followed by serializing the
+ * result to compact JSON. In a read-write transaction Hibernate snapshots
+ * every jsonb attribute when the rows are loaded and compares them again when
+ * the transaction flushes; a read-only one skips both.
+ * <p>
+ * The domains are seeded through {@code DomainConfigService} in steps given
+ * by {@code readpath.domains} (100,1000 by default), on top of the sample
+ * configurations. The two modes take turns, so drift affects both alike;
+ * allocation is measured per read on the calling thread.
+ */
+public final class ReadPathBenchmark {
+    
+    private static final int WARMUP_RUNS = 50;
+    private static final int MEASURED_RUNS = 200;
+    
+    private ReadPathBenchmark() {
+    }
+    
+    private static final class Mode {
+        final String name;
+        final TransactionTemplate transaction;
+        final Histogram histogram = new Histogram(3);
+        long allocatedBytes;
+        
+        Mode(String name, PlatformTransactionManager transactionManager, boolean readOnly) {
+            this.name = name;
+            this.transaction = new TransactionTemplate(transactionManager);
+            this.transaction.setReadOnly(readOnly);
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        List<Integer> steps = new ArrayList<>();
+        for (String step : System.getProperty("readpath.domains", "100,1000").split(",")) {
+            steps.add(Integer.parseInt(step.trim()));
+        }
+        
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext service = startService(postgres)) {
+            DomainConfigService domainConfigService = service.getBean(DomainConfigService.class);
+            DomainConfigRepository repository = service.getBean(DomainConfigRepository.class);
+            PlatformTransactionManager transactionManager = service.getBean(PlatformTransactionManager.class);
+            ObjectWriter writer = service.getBean(ObjectMapper.class).writer().without(SerializationFeature.INDENT_OUTPUT);
+            awaitSampleConfigurations();
+            
+            System.out.printf("%6s %-10s %9s %9s %9s %12s%n", "Rows", "Mode", "p50 ms", "p99 ms", "max ms", "KB/read");
+            int seeded = 0;
+            for (int domains : steps) {
+                for (; seeded < domains; seeded++) {
+                    domainConfigService.saveDomainConfig(SyntheticDomains.create(seeded));
+                }
+                
+                List<Mode> modes = List.of(
+                    new Mode("readWrite", transactionManager, false),
+                    new Mode("readOnly", transactionManager, true));
+                int rows = 0;
+                for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+                    for (Mode mode : modes) {
+                        long allocated = allocatedBytes();
+                        long start = System.nanoTime();
+                        List<DomainConfig> configs = mode.transaction.execute(status -> repository.findByIsActiveTrueOrderByDomainName());
+                        byte[] body = writer.writeValueAsBytes(configs);
+                        long elapsed = System.nanoTime() - start;
+                        if (run >= WARMUP_RUNS) {
+                            mode.histogram.recordValue(elapsed / 1000);
+                            mode.allocatedBytes += allocatedBytes() - allocated;
+                        }
+                        rows = configs.size();
+                        if (body.length == 0) {
+                            throw new IllegalStateException("Empty response body");
+                        }
+                    }
+                }
+                
+                for (Mode mode : modes) {
+                    System.out.printf("%6d %-10s %9.2f %9.2f %9.2f %12.1f%n", rows, mode.name,
+                        mode.histogram.getValueAtPercentile(50) / 1000.0,
+                        mode.histogram.getValueAtPercentile(99) / 1000.0,
+                        mode.histogram.getMaxValue() / 1000.0,
+                        mode.allocatedBytes / 1024.0 / MEASURED_RUNS);
+                }
+            }
+        }
+    }
+    
+    /**
+     * The sample configurations are saved on a background thread once the
+     * service is ready; wait for it so the row counts stay put while measuring
+     */
+    private static void awaitSampleConfigurations() throws InterruptedException {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("data-initialization")) {
+                thread.join();
+            }
+        }
+    }
+    
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+    
+    private static ConfigurableApplicationContext startService(EmbeddedPostgres postgres) {
+        // Command line arguments take precedence over application.yml
+        return SpringApplication.run(DomainConfigServiceApplication.class,
+            "--server.port=0",
+            "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+            "--spring.datasource.username=postgres",
+            "--spring.datasource.password=postgres",
+            "--eureka.client.enabled=false",
+            "--spring.cloud.discovery.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.tinysteps.domainconfig=WARN",
+            "--logging.level.org.hibernate.SQL=WARN",
+            "--logging.file.name=target/loadtest/domain-config-service.log",
+            "--domain.config.snapshot.file=");
+    }
+}
\ No newline at end of file
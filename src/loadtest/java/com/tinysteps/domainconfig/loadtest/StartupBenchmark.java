@@ -0,0 +1,176 @@
+package com.tinysteps.domainconfig.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Measures time to first successful request: from launching a fresh JVM
+ * until {@code GET /api/domain-config/healthcare} answers 200. The regular
+ * Spring Boot jar is compared with the {@code fast-start} layout (AOT bean
+ * definitions and the CDS archive), which is skipped if it has not been built.
+ * <p>
+ * Every run boots against the same embedded Postgres, migrated and seeded
+ * by an unmeasured first boot. The JVMs get the heap of the Kubernetes
+ * deployment and a single processor, close to its CPU limit. The number of
+ * runs per build comes from {@code startup.runs} (5 by default); the builds
+ * take turns so drift on the machine affects both alike.
+ */
+public final class StartupBenchmark {
+    
+    private static final List<String> JVM_ARGS = List.of("-Xms128m", "-Xmx256m", "-XX:ActiveProcessorCount=1");
+    private static final Duration BOOT_TIMEOUT = Duration.ofMinutes(3);
+    private static final Path TARGET = Paths.get("target");
+    private static final Path FAST_START = TARGET.resolve("fast-start");
+    private static final Path OUTPUT = TARGET.resolve("startup");
+    
+    private StartupBenchmark() {
+    }
+    
+    private static final class Build {
+        final String name;
+        final List<String> command;
+        final File directory;
+        final List<Long> millis = new ArrayList<>();
+        
+        Build(String name, List<String> command, File directory) {
+            this.name = name;
+            this.command = command;
+            this.directory = directory;
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        Files.createDirectories(OUTPUT);
+        
+        List<Build> builds = new ArrayList<>();
+        builds.add(new Build("jar", javaCommand(List.of("-jar", findBootJar().toAbsolutePath().toString())), null));
+        Path fastStartJar = FAST_START.resolve("domain-config-service-fast-start.jar");
+        if (Files.exists(fastStartJar) && Files.exists(FAST_START.resolve("app.jsa"))) {
+            builds.add(new Build("fast-start", javaCommand(List.of("-XX:SharedArchiveFile=app.jsa",
+                "-Dspring.aot.enabled=true", "-jar", fastStartJar.getFileName().toString())), FAST_START.toFile()));
+        } else {
+            System.out.println("No fast-start build in " + FAST_START + ", run mvn -Pfast-start package to include it");
+        }
+        
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            String jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+            System.out.println("Migrating and seeding the database...");
+            System.out.printf("First boot: %d ms%n", boot(builds.get(0), jdbcUrl, "seed"));
+            
+            for (int run = 1; run <= runs; run++) {
+                for (Build build : builds) {
+                    long millis = boot(build, jdbcUrl, build.name + "-" + run);
+                    build.millis.add(millis);
+                    System.out.printf("Run %d %-10s %6d ms%n", run, build.name, millis);
+                }
+            }
+        }
+        
+        System.out.printf("%n%-10s %8s %8s %8s%n", "Build", "min ms", "p50 ms", "max ms");
+        for (Build build : builds) {
+            List<Long> sorted = new ArrayList<>(build.millis);
+            Collections.sort(sorted);
+            System.out.printf("%-10s %8d %8d %8d%n", build.name,
+                sorted.get(0), sorted.get(sorted.size() / 2), sorted.get(sorted.size() - 1));
+        }
+    }
+    
+    /**
+     * Launch the build and poll until the first request succeeds, returning the elapsed milliseconds
+     */
+    private static long boot(Build build, String jdbcUrl, String label) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(build.command);
+        for (Map.Entry<String, String> argument : applicationArgs(jdbcUrl, port, label).entrySet()) {
+            command.add("--" + argument.getKey() + "=" + argument.getValue());
+        }
+        
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/domain-config/healthcare"))
+            .timeout(Duration.ofSeconds(5))
+            .build();
+        
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .directory(build.directory)
+            .redirectErrorStream(true)
+            .redirectOutput(OUTPUT.resolve(label + ".out").toFile())
+            .start();
+        try {
+            while (System.nanoTime() - start < BOOT_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(label + " exited with " + process.exitValue()
+                        + ", see " + OUTPUT.resolve(label + ".out"));
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException(label + " did not answer within " + BOOT_TIMEOUT.toSeconds() + "s");
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+    
+    private static Map<String, String> applicationArgs(String jdbcUrl, int port, String label) {
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("server.port", String.valueOf(port));
+        args.put("spring.datasource.url", jdbcUrl);
+        args.put("spring.datasource.username", "postgres");
+        args.put("spring.datasource.password", "postgres");
+        // The Eureka client stays on, as in production, but has no server to talk to
+        args.put("eureka.client.register-with-eureka", "false");
+        args.put("eureka.client.fetch-registry", "false");
+        args.put("domain.config.snapshot.file", "");
+        args.put("logging.level.root", "WARN");
+        args.put("logging.file.name", OUTPUT.resolve(label + ".log").toAbsolutePath().toString());
+        return args;
+    }
+    
+    private static List<String> javaCommand(List<String> launch) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(JVM_ARGS);
+        command.addAll(launch);
+        return command;
+    }
+    
+    private static Path findBootJar() throws IOException {
+        try (Stream<Path> files = Files.list(TARGET)) {
+            return files
+                .filter(file -> file.getFileName().toString().matches("domain-config-service-.*\\.jar"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No Spring Boot jar in " + TARGET + ", run mvn package first"));
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.tinysteps.domainconfig.loadtest;
+
+import com.tinysteps.domainconfig.model.DomainConfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates valid, deterministic domain configurations spread over a small
+ * set of context and transaction types, so the index lookups return
+ * realistic fan-out.
+ */
+final class SyntheticDomains {
+    
+    static final int CONTEXT_TYPES = 8;
+    static final int TRANSACTION_TYPES = 4;
+    
+    private SyntheticDomains() {
+    }
+    
+    static String domainName(int index) {
+        return "loadtest-domain-" + index;
+    }
+    
+    static String contextType(int index) {
+        return "context_" + (index % CONTEXT_TYPES);
+    }
+    
+    static String transactionType(int index) {
+        return "transaction_" + (index % TRANSACTION_TYPES);
+    }
+    
+    static DomainConfig create(int index) {
+        DomainConfig config = new DomainConfig();
+        config.setDomainName(domainName(index));
+        config.setDisplayName("Load test domain " + index);
+        config.setDescription("Synthetic domain generated by the load test harness");
+        
+        DomainConfig.DomainEntities entities = new DomainConfig.DomainEntities();
+        entities.setUserRoles(List.of(
+            new DomainConfig.UserRole("CUSTOMER", List.of("PLACE_ORDER", "VIEW_ORDERS", "RATE_PROVIDER")),
+            new DomainConfig.UserRole("PROVIDER", List.of("ACCEPT_ORDER", "VIEW_ORDERS", "RATE_CUSTOMER")),
+            new DomainConfig.UserRole("ADMIN", List.of("MANAGE_USERS", "VIEW_REPORTS", "SYSTEM_CONFIG")),
+            new DomainConfig.UserRole("SUPPORT", List.of("VIEW_ORDERS", "HANDLE_DISPUTES"))));
+        entities.setContextType(contextType(index));
+        entities.setTransactionType(transactionType(index));
+        entities.setResourceType("resource");
+        config.setEntities(entities);
+        
+        DomainConfig.DomainWorkflows workflows = new DomainConfig.DomainWorkflows();
+        List<DomainConfig.TransactionState> states = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            states.add(new DomainConfig.TransactionState("STATE_" + i, i < 8 ? List.of("STATE_" + (i + 1)) : List.of()));
+        }
+        workflows.setTransactionStates(states);
+        workflows.setPaymentRequired(index % 3 != 0);
+        workflows.setLocationRequired(index % 2 == 0);
+        workflows.setApprovalWorkflow(false);
+        workflows.setRatingSystem(true);
+        config.setWorkflows(workflows);
+        
+        DomainConfig.DomainTerminology terminology = new DomainConfig.DomainTerminology();
+        terminology.setUserPrimary("Customer");
+        terminology.setUserSecondary("Provider");
+        terminology.setContext("Location");
+        terminology.setTransaction("Order");
+        terminology.setResource("Item");
+        config.setTerminology(terminology);
+        
+        Map<String, Object> customSettings = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            customSettings.put("setting" + i, i % 2 == 0 ? "value-" + i : i);
+        }
+        config.setCustomSettings(customSettings);
+        return config;
+    }
+}
\ No newline at end of file
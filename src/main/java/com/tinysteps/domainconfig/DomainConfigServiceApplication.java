@@ -2,12 +2,10 @@ package com.tinysteps.domainconfig;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
 @SpringBootApplication
 @EnableDiscoveryClient
-@EnableCaching
 public class DomainConfigServiceApplication {
 
     public static void main(String[] args) {
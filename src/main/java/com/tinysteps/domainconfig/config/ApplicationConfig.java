@@ -3,23 +3,63 @@ package com.tinysteps.domainconfig.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.tinysteps.domainconfig.repository.DomainConfigRepository;
+import com.tinysteps.domainconfig.service.DomainConfigCacheInvalidator;
+import com.tinysteps.domainconfig.service.DomainConfigInterner;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
-@EnableCaching
+// Apply caching outside the transaction interceptor so cache hits never open a transaction
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class ApplicationConfig {
     
+    // Background refreshes run here instead of the common pool, bounded well below the Hikari pool size.
+    // Misses still load on the calling thread, coalesced per key by @Cacheable(sync = true).
+    // Not a bean: any Executor bean would replace Boot's applicationTaskExecutor for MVC async requests.
+    private final ExecutorService cacheRefreshExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    /**
+     * Stop the refresh threads with the context, so a refreshed context does not leak them
+     */
+    @PreDestroy
+    public void shutdownCacheRefreshExecutor() {
+        cacheRefreshExecutor.shutdownNow();
+    }
+    
     /**
      * Configure ObjectMapper for JSON serialization/deserialization
      */
@@ -47,27 +87,98 @@ public class ApplicationConfig {
     }
     
     /**
-     * Configure Caffeine Cache Manager
+     * CBOR converter for clients sending {@code Accept: application/cbor},
+     * sharing the JSON mapper's modules and naming
      */
     @Bean
-    public CacheManager cacheManager() {
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory())
+            .disable(SerializationFeature.INDENT_OUTPUT));
+    }
+    
+    /**
+     * Smile converter for clients sending {@code Accept: application/x-jackson-smile}
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory())
+            .disable(SerializationFeature.INDENT_OUTPUT));
+    }
+    
+    /**
+     * Configure Caffeine Cache Manager with the per-cache policies of {@link CachePolicyProperties}
+     */
+    @Bean
+    public CacheManager cacheManager(DomainConfigRepository domainConfigRepository,
+                                     CachePolicyProperties cachePolicies,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         
-        // Set cache names
-        cacheManager.setCacheNames(Arrays.asList(
-            "domainConfigs",
-            "allDomainConfigs",
-            "domainsByContext",
-            "paymentRequiredDomains",
-            "domainsByTransaction"
-        ));
+        // Only the caches registered below exist; unknown names are not created on the fly
+        cacheManager.setCacheNames(Collections.emptyList());
+        
+        List<String> cacheNames = new ArrayList<>(Arrays.asList(DomainConfigCacheInvalidator.DOMAIN_CACHES));
+        cacheNames.addAll(Arrays.asList(DomainConfigCacheInvalidator.AGGREGATE_CACHES));
+        CacheEntryWeigher weigher = new CacheEntryWeigher(objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT));
         
-        // Configure cache specification
-        cacheManager.setCacheSpecification("maximumSize=1000,expireAfterWrite=1h");
+        // Refreshes load like DomainConfigService.getDomainConfig: read-only, storing compact copies
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        
+        // Lookups that hit the database are refreshed in the background before
+        // they expire, so hot keys never expire together and never block on a query
+        for (String cacheName : DomainConfigCacheInvalidator.DOMAIN_CACHES) {
+            Caffeine<Object, Object> builder = cacheBuilder(cacheName, cacheNames, cachePolicies.getLookups(), cachePolicies, weigher);
+            if (cacheName.equals("domainConfigs")) {
+                cacheManager.registerCustomCache(cacheName, withRefresh(builder, cacheName, cachePolicies.getLookups(), cachePolicies,
+                    domainName -> readOnly.execute(status -> domainConfigRepository.findByDomainNameAndIsActiveTrue((String) domainName)
+                        .<Object>map(DomainConfigInterner::compact)
+                        .orElse(NullValue.INSTANCE))));
+            } else {
+                cacheManager.registerCustomCache(cacheName, builder.build());
+            }
+        }
+        for (String cacheName : DomainConfigCacheInvalidator.AGGREGATE_CACHES) {
+            cacheManager.registerCustomCache(cacheName,
+                cacheBuilder(cacheName, cacheNames, cachePolicies.getAggregates(), cachePolicies, weigher).build());
+        }
         
         return cacheManager;
     }
     
+    /**
+     * Eviction by weight within the cache's share of the memory budget, recording
+     * stats so targeted eviction can be verified
+     */
+    private Caffeine<Object, Object> cacheBuilder(String cacheName,
+                                                  List<String> cacheNames,
+                                                  CachePolicyProperties.Policy defaults,
+                                                  CachePolicyProperties cachePolicies,
+                                                  CacheEntryWeigher weigher) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumWeight(cachePolicies.getMaximumWeight(cacheName, cacheNames))
+            .weigher(weigher)
+            .recordStats();
+        Duration expireAfterWrite = cachePolicies.getExpireAfterWrite(cacheName, defaults);
+        if (expireAfterWrite != null) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        return builder;
+    }
+    
+    private LoadingCache<Object, Object> withRefresh(Caffeine<Object, Object> builder,
+                                                     String cacheName,
+                                                     CachePolicyProperties.Policy defaults,
+                                                     CachePolicyProperties cachePolicies,
+                                                     CacheLoader<Object, Object> loader) {
+        Duration refreshAfterWrite = cachePolicies.getRefreshAfterWrite(cacheName, defaults);
+        if (refreshAfterWrite != null) {
+            builder.refreshAfterWrite(refreshAfterWrite).executor(cacheRefreshExecutor);
+        }
+        return builder.build(loader);
+    }
+    
     /**
      * Configure CORS for cross-origin requests
      */
@@ -108,10 +219,20 @@ public class ApplicationConfig {
         return source;
     }
     
+    /**
+     * Cache eviction, expiry and memory budget settings
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "domain.config.cache")
+    public CachePolicyProperties cachePolicyProperties() {
+        return new CachePolicyProperties();
+    }
+    
     /**
      * Configure custom properties
      */
     @Bean
+    @ConfigurationProperties(prefix = "domain.config")
     public DomainConfigProperties domainConfigProperties() {
         return new DomainConfigProperties();
     }
@@ -0,0 +1,81 @@
+package com.tinysteps.domainconfig.config;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.tinysteps.domainconfig.model.SerializedConfig;
+import org.springframework.cache.support.NullValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * Weighs cache entries by their estimated serialized size in bytes, so a
+ * list holding every domain counts for as much as all of its domains.
+ * Pre-serialized responses are weighed by their body and its gzip copy;
+ * other values by the length of their compact JSON, written to a counter
+ * rather than a buffer.
+ * Each entry also carries a fixed overhead for the cache node and its key.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+    
+    /**
+     * Approximate heap cost of the cache node, key object and value wrapper
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+    
+    private final ObjectWriter writer;
+    
+    public CacheEntryWeigher(ObjectWriter writer) {
+        this.writer = writer;
+    }
+    
+    @Override
+    public int weigh(Object key, Object value) {
+        long weight = ENTRY_OVERHEAD + estimateSize(key) + estimateSize(value);
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+    
+    private long estimateSize(Object value) {
+        if (value == null || value instanceof NullValue) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return ((String) value).length();
+        }
+        if (value instanceof SerializedConfig) {
+            SerializedConfig serialized = (SerializedConfig) value;
+            byte[] gzipBody = serialized.getGzipBody();
+            return serialized.getBody().length + (gzipBody != null ? gzipBody.length : 0);
+        }
+        if (value instanceof Collection) {
+            long size = 0;
+            for (Object element : (Collection<?>) value) {
+                size += estimateSize(element);
+            }
+            return size;
+        }
+        CountingOutputStream counter = new CountingOutputStream();
+        try {
+            writer.writeValue(counter, value);
+        } catch (IOException e) {
+            // Values that cannot be written as JSON only cost their overhead
+            return 0;
+        }
+        return counter.count;
+    }
+    
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+        
+        @Override
+        public void write(int b) {
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.tinysteps.domainconfig.config;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Eviction and expiry settings of the Caffeine caches, bound from
+ * {@code domain.config.cache}. Entries are weighed by their estimated
+ * serialized size and {@link #getMaxMemory()} is split between the caches
+ * in proportion to their shares, so together they never hold more than the
+ * budget. Lookup and aggregate caches have their own expiry defaults, which
+ * a cache may override.
+ */
+public class CachePolicyProperties {
+    
+    private DataSize maxMemory = DataSize.ofMegabytes(128);
+    private Policy lookups = new Policy(Duration.ofHours(1), Duration.ofMinutes(45));
+    private Policy aggregates = new Policy(Duration.ofMinutes(15), null);
+    private Map<String, Policy> caches = new LinkedHashMap<>();
+    
+    /**
+     * Bytes of the budget given to a cache, its share of {@link #getMaxMemory()}
+     * relative to the shares of all the given caches
+     */
+    public long getMaximumWeight(String cacheName, Collection<String> cacheNames) {
+        long totalShares = 0;
+        for (String name : cacheNames) {
+            totalShares += getShare(name);
+        }
+        return totalShares == 0 ? 0 : maxMemory.toBytes() * getShare(cacheName) / totalShares;
+    }
+    
+    /**
+     * Expiry of a cache, falling back to the defaults of its kind
+     */
+    public Duration getExpireAfterWrite(String cacheName, Policy defaults) {
+        Policy policy = caches.get(cacheName);
+        return policy != null && policy.getExpireAfterWrite() != null ? policy.getExpireAfterWrite() : defaults.getExpireAfterWrite();
+    }
+    
+    /**
+     * Background refresh interval of a cache, falling back to the defaults of its kind
+     */
+    public Duration getRefreshAfterWrite(String cacheName, Policy defaults) {
+        Policy policy = caches.get(cacheName);
+        return policy != null && policy.getRefreshAfterWrite() != null ? policy.getRefreshAfterWrite() : defaults.getRefreshAfterWrite();
+    }
+    
+    private int getShare(String cacheName) {
+        Policy policy = caches.get(cacheName);
+        return policy != null ? policy.getShare() : 1;
+    }
+    
+    // Getters and setters
+    public DataSize getMaxMemory() { return maxMemory; }
+    
+    public void setMaxMemory(DataSize maxMemory) { this.maxMemory = maxMemory; }
+    
+    public Policy getLookups() { return lookups; }
+    
+    public void setLookups(Policy lookups) { this.lookups = lookups; }
+    
+    public Policy getAggregates() { return aggregates; }
+    
+    public void setAggregates(Policy aggregates) { this.aggregates = aggregates; }
+    
+    public Map<String, Policy> getCaches() { return caches; }
+    
+    public void setCaches(Map<String, Policy> caches) { this.caches = caches; }
+    
+    /**
+     * Settings of one cache or of a kind of cache. Refresh only applies to
+     * caches with a loader; the others just expire.
+     */
+    public static class Policy {
+        private Duration expireAfterWrite;
+        private Duration refreshAfterWrite;
+        private int share = 1;
+        
+        public Policy() {}
+        
+        public Policy(Duration expireAfterWrite, Duration refreshAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+        
+        public Duration getExpireAfterWrite() { return expireAfterWrite; }
+        
+        public void setExpireAfterWrite(Duration expireAfterWrite) { this.expireAfterWrite = expireAfterWrite; }
+        
+        public Duration getRefreshAfterWrite() { return refreshAfterWrite; }
+        
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) { this.refreshAfterWrite = refreshAfterWrite; }
+        
+        public int getShare() { return share; }
+        
+        public void setShare(int share) { this.share = share; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.tinysteps.domainconfig.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tags HTTP server metrics with the {@code domain} a request names. Only the
+ * configured supported domains get their own value; every other name is
+ * tagged {@code other}, so the number of time series stays bounded however
+ * many domains exist.
+ */
+@Component
+public class DomainRequestObservationConvention extends DefaultServerRequestObservationConvention {
+    
+    private static final String NONE = "none";
+    private static final String OTHER = "other";
+    
+    private final Set<String> taggedDomains;
+    
+    public DomainRequestObservationConvention(ApplicationConfig.DomainConfigProperties properties) {
+        this.taggedDomains = Set.of(properties.getSupportedDomains());
+    }
+    
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(KeyValue.of("domain", domain(context)));
+    }
+    
+    private String domain(ServerRequestObservationContext context) {
+        Object variables = context.getCarrier().getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(variables instanceof Map)) {
+            return NONE;
+        }
+        Object domainName = ((Map<?, ?>) variables).get("domainName");
+        if (domainName == null) {
+            return NONE;
+        }
+        return taggedDomains.contains(domainName) ? (String) domainName : OTHER;
+    }
+}
\ No newline at end of file
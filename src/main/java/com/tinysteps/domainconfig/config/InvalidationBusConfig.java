@@ -0,0 +1,38 @@
+package com.tinysteps.domainconfig.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinysteps.domainconfig.invalidation.InvalidationBus;
+import com.tinysteps.domainconfig.invalidation.LoopbackInvalidationBus;
+import com.tinysteps.domainconfig.invalidation.PostgresInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class InvalidationBusConfig {
+    
+    /**
+     * Broadcast cache invalidations to all replicas through Postgres LISTEN/NOTIFY
+     */
+    @Bean
+    @ConditionalOnProperty(name = "domain.config.invalidation.transport", havingValue = "postgres")
+    public InvalidationBus postgresInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties,
+            ObjectMapper objectMapper,
+            @Value("${domain.config.invalidation.channel:domain_config_changes}") String channel) {
+        return new PostgresInvalidationBus(jdbcTemplate, dataSourceProperties, objectMapper, channel);
+    }
+    
+    /**
+     * Deliver invalidations in-process only (single replica, tests)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "domain.config.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+    public InvalidationBus loopbackInvalidationBus() {
+        return new LoopbackInvalidationBus();
+    }
+}
\ No newline at end of file
@@ -1,15 +1,51 @@
 package com.tinysteps.domainconfig.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.model.DomainConfigChanges;
+import com.tinysteps.domainconfig.model.ImportReport;
+import com.tinysteps.domainconfig.model.PermissionCheck;
+import com.tinysteps.domainconfig.model.RolePermissions;
+import com.tinysteps.domainconfig.model.SerializedConfig;
+import com.tinysteps.domainconfig.model.TransitionCheck;
+import com.tinysteps.domainconfig.model.WorkflowStateMachine;
+import com.tinysteps.domainconfig.patch.JsonPatchException;
+import com.tinysteps.domainconfig.patch.PreconditionFailedException;
+import com.tinysteps.domainconfig.service.DomainConfigChangeFeed;
+import com.tinysteps.domainconfig.service.DomainConfigImportService;
+import com.tinysteps.domainconfig.service.DomainConfigPatchService;
+import com.tinysteps.domainconfig.service.DomainConfigProjection;
+import com.tinysteps.domainconfig.service.DomainConfigProjectionService;
+import com.tinysteps.domainconfig.service.DomainConfigResponseService;
 import com.tinysteps.domainconfig.service.DomainConfigService;
+import com.tinysteps.domainconfig.service.ResponseFormat;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/domain-config")
@@ -19,23 +55,115 @@ public class DomainConfigController {
     @Autowired
     private DomainConfigService domainConfigService;
     
+    @Autowired
+    private DomainConfigResponseService domainConfigResponseService;
+    
+    @Autowired
+    private DomainConfigChangeFeed domainConfigChangeFeed;
+    
+    // Write-side helpers are created on first use, keeping them off the startup path
+    @Autowired
+    private ObjectProvider<DomainConfigImportService> domainConfigImportService;
+    
+    @Autowired
+    private ObjectProvider<DomainConfigPatchService> domainConfigPatchService;
+    
+    @Autowired
+    private DomainConfigProjectionService domainConfigProjectionService;
+    
+    @Value("${domain.config.import.directory:imports}")
+    private String importDirectory;
+    
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_TRANSITION_BATCH_SIZE = 1000;
+    private static final int MAX_PERMISSION_BATCH_SIZE = 1000;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final long MAX_POLL_TIMEOUT_SECONDS = 120;
+    private static final long STREAM_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+    
     /**
-     * Get domain configuration by domain name
+     * Get domain configuration by domain name, answering If-None-Match with 304.
+     * Clients accepting {@code application/cbor} or {@code application/x-jackson-smile}
+     * get that encoding; everyone else gets compact JSON.
      */
     @GetMapping("/{domainName}")
-    public ResponseEntity<DomainConfig> getDomainConfig(@PathVariable String domainName) {
-        Optional<DomainConfig> config = domainConfigService.getDomainConfig(domainName);
-        return config.map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getDomainConfig(@PathVariable String domainName, WebRequest webRequest) {
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        Optional<SerializedConfig> config = domainConfigResponseService.getSerializedDomainConfig(domainName, format);
+        if (config.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return serve(config.get(), format, webRequest);
+    }
+    
+    /**
+     * Get the configurations of several domains in one response, e.g.
+     * {@code /batch?names=healthcare,ecommerce}; unknown domains are listed
+     * under {@code missing}
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<?> getDomainConfigs(@RequestParam List<String> names, WebRequest webRequest) {
+        Set<String> domainNames = new LinkedHashSet<>();
+        for (String name : names) {
+            if (!name.isBlank()) {
+                domainNames.add(name.trim());
+            }
+        }
+        if (domainNames.isEmpty() || domainNames.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                .body("Between 1 and " + MAX_BATCH_SIZE + " domain names are required");
+        }
+        
+        SerializedConfig batch = domainConfigResponseService.getSerializedDomainConfigs(domainNames);
+        if (webRequest.checkNotModified(batch.getEtag())) {
+            return null;
+        }
+        
+        return ResponseEntity.ok()
+            .eTag(batch.getEtag())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(batch.getBody());
     }
     
     /**
-     * Get all active domain configurations
+     * Get all active domain configurations, or only the given {@code fields} of each.
+     * With {@code limit} and/or {@code after} one page is returned instead, ordered by
+     * domain name; its {@code next} value is the {@code after} of the following page.
      */
     @GetMapping
-    public ResponseEntity<List<DomainConfig>> getAllDomainConfigs() {
-        List<DomainConfig> configs = domainConfigService.getAllActiveDomainConfigs();
-        return ResponseEntity.ok(configs);
+    public ResponseEntity<?> getAllDomainConfigs(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            WebRequest webRequest) {
+        if (limit != null || after != null) {
+            int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+            if (fields != null) {
+                return ResponseEntity.badRequest().body("fields cannot be combined with paging");
+            }
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest().body("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            return ResponseEntity.ok(domainConfigService.getDomainConfigPage(after, pageSize));
+        }
+        if (fields != null) {
+            return projected(fields, webRequest, domainConfigProjectionService::getAllActiveDomainConfigs);
+        }
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        return serve(domainConfigResponseService.getSerializedActiveDomainConfigs(format), format, webRequest);
+    }
+    
+    /**
+     * Stream all active domain configurations as newline-delimited JSON; rows are
+     * read through a database cursor and written as they arrive
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDomainConfigs() {
+        StreamingResponseBody body = domainConfigResponseService::writeActiveDomainConfigs;
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
     }
     
     /**
@@ -99,6 +227,45 @@ public class DomainConfigController {
         }
     }
     
+    /**
+     * Partially update a domain configuration with a JSON Merge Patch
+     * (RFC 7396) or JSON Patch (RFC 6902); only the changed fields are written.
+     * An If-Match header makes the patch conditional on the ETag of the
+     * configuration the client last read, in whichever representation. The
+     * tags are compared, strongly, with the stored configuration the patch is
+     * applied to.
+     */
+    @PatchMapping(value = "/{domainName}",
+                  consumes = {DomainConfigPatchService.MERGE_PATCH, DomainConfigPatchService.JSON_PATCH})
+    public ResponseEntity<?> patchDomainConfig(
+            @PathVariable String domainName,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        try {
+            String format = contentType.getType() + "/" + contentType.getSubtype();
+            Optional<DomainConfig> patched = domainConfigPatchService.getObject()
+                .patchDomainConfig(domainName, format, patch, ifMatch != null ? strongEntityTags(ifMatch) : null);
+            if (patched.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(patched.get());
+            
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+        } catch (JsonPatchException e) {
+            return ResponseEntity.unprocessableEntity().body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body("Invalid domain configuration: " + e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error patching domain configuration: " + e.getMessage());
+        }
+    }
+    
     /**
      * Delete domain configuration (soft delete)
      */
@@ -120,30 +287,127 @@ public class DomainConfigController {
     }
     
     /**
-     * Get domain configurations by context type
+     * Get domain configurations by context type, optionally only the given {@code fields}
      */
     @GetMapping("/by-context/{contextType}")
-    public ResponseEntity<List<DomainConfig>> getDomainsByContextType(@PathVariable String contextType) {
-        List<DomainConfig> configs = domainConfigService.getDomainsByContextType(contextType);
-        return ResponseEntity.ok(configs);
+    public ResponseEntity<?> getDomainsByContextType(
+            @PathVariable String contextType,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        if (fields != null) {
+            return projected(fields, webRequest,
+                projection -> domainConfigProjectionService.getDomainsByContextType(contextType, projection));
+        }
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        return serve(domainConfigResponseService.getSerializedDomainsByContextType(contextType, format), format, webRequest);
     }
     
     /**
      * Get domains that require payment
      */
     @GetMapping("/payment-required")
-    public ResponseEntity<List<DomainConfig>> getPaymentRequiredDomains() {
-        List<DomainConfig> configs = domainConfigService.getPaymentRequiredDomains();
-        return ResponseEntity.ok(configs);
+    public ResponseEntity<byte[]> getPaymentRequiredDomains(WebRequest webRequest) {
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        return serve(domainConfigResponseService.getSerializedPaymentRequiredDomains(format), format, webRequest);
     }
     
     /**
-     * Get domain configurations by transaction type
+     * Get domain configurations by transaction type, optionally only the given {@code fields}
      */
     @GetMapping("/by-transaction/{transactionType}")
-    public ResponseEntity<List<DomainConfig>> getDomainsByTransactionType(@PathVariable String transactionType) {
-        List<DomainConfig> configs = domainConfigService.getDomainsByTransactionType(transactionType);
-        return ResponseEntity.ok(configs);
+    public ResponseEntity<?> getDomainsByTransactionType(
+            @PathVariable String transactionType,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        if (fields != null) {
+            return projected(fields, webRequest,
+                projection -> domainConfigProjectionService.getDomainsByTransactionType(transactionType, projection));
+        }
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        return serve(domainConfigResponseService.getSerializedDomainsByTransactionType(transactionType, format),
+            format, webRequest);
+    }
+    
+    /**
+     * Check whether the domain's workflow allows moving directly from one
+     * transaction state to another, e.g. {@code /cab-booking/transitions?from=REQUESTED&to=CANCELLED}
+     */
+    @GetMapping("/{domainName}/transitions")
+    public ResponseEntity<TransitionCheck> checkTransition(
+            @PathVariable String domainName,
+            @RequestParam String from,
+            @RequestParam String to) {
+        Optional<WorkflowStateMachine> stateMachine = domainConfigService.getStateMachine(domainName);
+        if (stateMachine.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new TransitionCheck(from, to, stateMachine.get().isAllowed(from, to)));
+    }
+    
+    /**
+     * Check several transitions of one domain at once; the answer lists them in
+     * request order with {@code allowed} filled in
+     */
+    @PostMapping("/{domainName}/transitions")
+    public ResponseEntity<?> checkTransitions(
+            @PathVariable String domainName,
+            @RequestBody List<TransitionCheck> transitions) {
+        if (transitions.isEmpty() || transitions.size() > MAX_TRANSITION_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                .body("Between 1 and " + MAX_TRANSITION_BATCH_SIZE + " transitions are required");
+        }
+        Optional<WorkflowStateMachine> stateMachine = domainConfigService.getStateMachine(domainName);
+        if (stateMachine.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        List<TransitionCheck> results = new ArrayList<>(transitions.size());
+        for (TransitionCheck transition : transitions) {
+            boolean allowed = stateMachine.get().isAllowed(transition.getFrom(), transition.getTo());
+            results.add(new TransitionCheck(transition.getFrom(), transition.getTo(), allowed));
+        }
+        return ResponseEntity.ok(results);
+    }
+    
+    /**
+     * Check whether a user role of the domain grants a permission, e.g.
+     * {@code /cab-booking/permissions?role=RIDER&permission=BOOK_RIDE}
+     */
+    @GetMapping("/{domainName}/permissions")
+    public ResponseEntity<PermissionCheck> checkPermission(
+            @PathVariable String domainName,
+            @RequestParam String role,
+            @RequestParam String permission) {
+        Optional<RolePermissions> rolePermissions = domainConfigService.getRolePermissions(domainName);
+        if (rolePermissions.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new PermissionCheck(role, permission, rolePermissions.get().hasPermission(role, permission)));
+    }
+    
+    /**
+     * Check several role permissions of one domain at once; the answer lists
+     * them in request order with {@code granted} filled in
+     */
+    @PostMapping("/{domainName}/permissions")
+    public ResponseEntity<?> checkPermissions(
+            @PathVariable String domainName,
+            @RequestBody List<PermissionCheck> checks) {
+        if (checks.isEmpty() || checks.size() > MAX_PERMISSION_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                .body("Between 1 and " + MAX_PERMISSION_BATCH_SIZE + " permission checks are required");
+        }
+        Optional<RolePermissions> rolePermissions = domainConfigService.getRolePermissions(domainName);
+        if (rolePermissions.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        List<PermissionCheck> results = new ArrayList<>(checks.size());
+        for (PermissionCheck check : checks) {
+            boolean granted = rolePermissions.get().hasPermission(check.getRole(), check.getPermission());
+            results.add(new PermissionCheck(check.getRole(), check.getPermission(), granted));
+        }
+        return ResponseEntity.ok(results);
     }
     
     /**
@@ -179,6 +443,191 @@ public class DomainConfigController {
         }
     }
     
+    /**
+     * Bulk import configurations streamed in the request body as JSON, NDJSON
+     * or a tar archive, or from {@code path} relative to the server's import
+     * directory. The body is an archive for {@code application/x-tar} and
+     * {@code application/x-gtar}, and gzipped for {@code application/gzip},
+     * {@code application/x-gtar} or {@code Content-Encoding: gzip}.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importDomainConfigs(
+            @RequestParam(defaultValue = "upsert") String mode,
+            @RequestParam(required = false) String path,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) {
+        DomainConfigImportService.Mode importMode;
+        try {
+            importMode = DomainConfigImportService.Mode.parse(mode);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown import mode '" + mode + "'");
+        }
+        
+        ImportReport report;
+        if (path != null) {
+            Path root = Paths.get(importDirectory).toAbsolutePath().normalize();
+            Path source = root.resolve(path).normalize();
+            if (!source.startsWith(root) || !Files.exists(source)) {
+                return ResponseEntity.badRequest().body("No import source '" + path + "' in the import directory");
+            }
+            report = domainConfigImportService.getObject().importFrom(source, importMode);
+        } else {
+            String type = mediaType(contentType);
+            // application/gzip can be any gzipped body; only the tar types mean an archive
+            boolean gtar = type.equals("application/x-gtar") || type.equals("application/gtar");
+            boolean tar = gtar || type.equals("application/x-tar") || type.equals("application/tar");
+            boolean gzip = gtar || type.equals("application/gzip") || type.equals("application/x-gzip")
+                || (contentEncoding != null && contentEncoding.trim().equalsIgnoreCase("gzip"));
+            report = domainConfigImportService.getObject().importFrom(body, "request body", tar, gzip, importMode);
+        }
+        
+        return ResponseEntity.status(report.isCommitted() ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(report);
+    }
+    
+    /**
+     * Long-poll for changes after the given revision; omit {@code since} to
+     * get every active domain and the current revision. A timeout of 0 answers
+     * at once, with or without changes.
+     */
+    @GetMapping("/changes")
+    public DeferredResult<DomainConfigChanges> pollChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "30") long timeoutSeconds) {
+        long timeout = Math.max(0, Math.min(timeoutSeconds, MAX_POLL_TIMEOUT_SECONDS));
+        return domainConfigChangeFeed.poll(since, timeout * 1000);
+    }
+    
+    /**
+     * Stream changes after the given revision as Server-Sent Events
+     */
+    @GetMapping(value = "/watch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter watchChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        // Reconnecting EventSource clients resume from the last event they received
+        return domainConfigChangeFeed.stream(lastEventId != null ? lastEventId : since, STREAM_TIMEOUT_MILLIS);
+    }
+    
+    /**
+     * Get cache hit/miss statistics
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStatistics() {
+        return ResponseEntity.ok(domainConfigService.getCacheStatistics());
+    }
+    
+    /**
+     * The strong entity tags of an If-Match header, quotes included, or null
+     * for {@code *}, which any existing configuration matches. Weak tags are
+     * left out since If-Match compares strongly (RFC 9110, 13.1.1); a header
+     * that cannot be parsed yields no tags, so it matches nothing.
+     */
+    static List<String> strongEntityTags(String ifMatch) {
+        String header = ifMatch.trim();
+        if (header.equals("*")) {
+            return null;
+        }
+        List<String> tags = new ArrayList<>();
+        int i = 0;
+        while (i < header.length()) {
+            char c = header.charAt(i);
+            if (c == ',' || c == ' ' || c == '\t') {
+                i++;
+                continue;
+            }
+            boolean weak = header.startsWith("W/", i);
+            int open = weak ? i + 2 : i;
+            int close = open < header.length() && header.charAt(open) == '"' ? header.indexOf('"', open + 1) : -1;
+            if (close < 0) {
+                return List.of();
+            }
+            if (!weak) {
+                tags.add(header.substring(open, close + 1));
+            }
+            i = close + 1;
+        }
+        return tags;
+    }
+    
+    /**
+     * Lower-case type/subtype of a Content-Type header, without parameters
+     */
+    private static String mediaType(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        int parameters = contentType.indexOf(';');
+        return (parameters >= 0 ? contentType.substring(0, parameters) : contentType).trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Serve a cached projection, answering If-None-Match with 304
+     */
+    private ResponseEntity<?> projected(String fields, WebRequest webRequest,
+                                        Function<DomainConfigProjection, SerializedConfig> query) {
+        DomainConfigProjection projection;
+        try {
+            projection = DomainConfigProjection.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        
+        return serve(query.apply(projection), ResponseFormat.JSON, webRequest);
+    }
+    
+    /**
+     * Send a pre-serialized body, answering If-None-Match with 304. Bodies large
+     * enough to benefit are sent gzip-compressed to clients that accept it; the
+     * compressed bytes are part of the cached entry, not compressed per request.
+     */
+    private ResponseEntity<byte[]> serve(SerializedConfig serialized, ResponseFormat format, WebRequest webRequest) {
+        boolean gzip = serialized.getGzipBody() != null
+            && acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? serialized.getGzipEtag() : serialized.getEtag();
+        if (webRequest.checkNotModified(etag)) {
+            // 304 status and ETag header have already been set
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+            .contentType(format.getMediaType());
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serialized.getGzipBody());
+        }
+        return response.body(serialized.getBody());
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    
     /**
      * Health check endpoint
      */
@@ -0,0 +1,47 @@
+package com.tinysteps.domainconfig.invalidation;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Broadcast to every replica after a domain configuration write commits. A
+ * null domain name means many domains changed and receivers should resync.
+ */
+public class ConfigChangeEvent {
+    
+    private final String domainName;
+    private final long version;
+    private final long revision;
+    private final String origin;
+    
+    @JsonCreator
+    public ConfigChangeEvent(@JsonProperty("domainName") String domainName,
+                             @JsonProperty("version") long version,
+                             @JsonProperty("revision") long revision,
+                             @JsonProperty("origin") String origin) {
+        this.domainName = domainName;
+        this.version = version;
+        this.revision = revision;
+        this.origin = origin;
+    }
+    
+    // Getters
+    public String getDomainName() { return domainName; }
+    
+    public long getVersion() { return version; }
+    
+    /**
+     * Service-wide revision assigned to the change
+     */
+    public long getRevision() { return revision; }
+    
+    /**
+     * Instance id of the replica that made the change
+     */
+    public String getOrigin() { return origin; }
+    
+    @Override
+    public String toString() {
+        return "ConfigChangeEvent{domainName='" + domainName + "', version=" + version + ", origin='" + origin + "'}";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.tinysteps.domainconfig.invalidation;
+
+/**
+ * Broadcasts domain configuration changes to all replicas so each one can
+ * evict its local caches.
+ */
+public interface InvalidationBus {
+    
+    /**
+     * Unique id of this replica, used to recognise its own events
+     */
+    String getInstanceId();
+    
+    /**
+     * Publish a change to all replicas, including this one. Called from
+     * inside the writing transaction where there is one; transports that can
+     * deliver only once it commits.
+     */
+    void publish(ConfigChangeEvent event);
+    
+    /**
+     * Register a listener for changes published by any replica
+     */
+    void subscribe(InvalidationListener listener);
+}
\ No newline at end of file
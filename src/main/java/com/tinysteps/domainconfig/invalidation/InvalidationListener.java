@@ -0,0 +1,18 @@
+package com.tinysteps.domainconfig.invalidation;
+
+/**
+ * Receives change events from an {@link InvalidationBus}.
+ */
+public interface InvalidationListener {
+    
+    /**
+     * A domain configuration changed on some replica
+     */
+    void onChange(ConfigChangeEvent event);
+    
+    /**
+     * Events may have been missed (e.g. after a reconnect), so everything
+     * cached locally must be treated as stale
+     */
+    void onResync();
+}
\ No newline at end of file
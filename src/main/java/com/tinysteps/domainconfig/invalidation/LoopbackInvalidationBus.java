@@ -0,0 +1,32 @@
+package com.tinysteps.domainconfig.invalidation;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process transport that delivers events synchronously to local
+ * listeners. Suitable for a single replica and for tests.
+ */
+public class LoopbackInvalidationBus implements InvalidationBus {
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    
+    @Override
+    public String getInstanceId() {
+        return instanceId;
+    }
+    
+    @Override
+    public void publish(ConfigChangeEvent event) {
+        for (InvalidationListener listener : listeners) {
+            listener.onChange(event);
+        }
+    }
+    
+    @Override
+    public void subscribe(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+}
\ No newline at end of file
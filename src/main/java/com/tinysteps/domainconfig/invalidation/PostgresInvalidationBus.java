@@ -0,0 +1,161 @@
+package com.tinysteps.domainconfig.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Transport based on Postgres LISTEN/NOTIFY.
+ * <p>
+ * Events are published with {@code pg_notify} on the connection of the
+ * current transaction, if any, so Postgres delivers them when, and only if,
+ * that transaction commits. A dedicated connection outside the pool listens
+ * on the channel from a daemon thread, so it never takes a slot away from
+ * request handling. After
+ * the listening connection is re-established, listeners get a resync since
+ * notifications sent while disconnected are lost. Any failure, including a
+ * failed resync, leads to a reconnect rather than ending the thread.
+ */
+public class PostgresInvalidationBus implements InvalidationBus, InitializingBean, DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PostgresInvalidationBus.class);
+    
+    private static final int POLL_TIMEOUT_MILLIS = 5000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter eventWriter;
+    private final String channel;
+    
+    private volatile boolean running;
+    private Thread listenerThread;
+    
+    public PostgresInvalidationBus(JdbcTemplate jdbcTemplate,
+                                   DataSourceProperties dataSourceProperties,
+                                   ObjectMapper objectMapper,
+                                   String channel) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        // NOTIFY payloads are capped at 8000 bytes, keep them compact
+        this.eventWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.channel = channel;
+    }
+    
+    @Override
+    public String getInstanceId() {
+        return instanceId;
+    }
+    
+    @Override
+    public void publish(ConfigChangeEvent event) {
+        try {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class,
+                channel, eventWriter.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize {}: {}", event, e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public void subscribe(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+    
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        listenerThread = new Thread(this::listen, "config-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+    
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread.join(POLL_TIMEOUT_MILLIS);
+        }
+    }
+    
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                logger.info("Listening for domain configuration changes on channel '{}'", channel);
+                
+                // A resync that fails (the database may still be recovering) is retried on the next connection
+                if (reconnecting) {
+                    listeners.forEach(InvalidationListener::onResync);
+                }
+                reconnecting = true;
+                
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Invalidation listener failed, reconnecting in {} ms: {}",
+                    RECONNECT_DELAY_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void dispatch(String payload) {
+        try {
+            ConfigChangeEvent event = objectMapper.readValue(payload, ConfigChangeEvent.class);
+            for (InvalidationListener listener : listeners) {
+                try {
+                    listener.onChange(event);
+                } catch (RuntimeException e) {
+                    logger.error("Error handling {}: {}", event, e.getMessage(), e);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed invalidation payload '{}': {}", payload, e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -1,10 +1,15 @@
 package com.tinysteps.domainconfig.model;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Generated;
 import org.hibernate.annotations.Type;
+import org.hibernate.generator.EventType;
 import io.hypersistence.utils.hibernate.type.json.JsonType;
 
 import java.time.LocalDateTime;
@@ -50,6 +55,22 @@ public class DomainConfig {
     @Column(name = "is_active")
     private Boolean isActive = true;
     
+    /**
+     * Per-domain change counter. The database bumps it on every update (see
+     * V3__bump_version_in_database.sql) and it is read back after each write;
+     * a value set here is never written.
+     */
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version = 0L;
+    
+    /**
+     * Service-wide monotonic revision of the last write to this domain,
+     * used by clients watching for changes
+     */
+    @Column(name = "revision")
+    private Long revision;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -95,6 +116,12 @@ public class DomainConfig {
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { this.isActive = isActive; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    public Long getRevision() { return revision; }
+    public void setRevision(Long revision) { this.revision = revision; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -104,23 +131,49 @@ public class DomainConfig {
     // Nested classes for JSON structure
     public static class DomainEntities {
         @JsonProperty("user_roles")
-        private List<String> userRoles;
+        @JsonAlias("userRoles")
+        private List<UserRole> userRoles;
         
         @JsonProperty("context_type")
+        @JsonAlias("contextType")
         private String contextType;
         
         @JsonProperty("transaction_type")
+        @JsonAlias("transactionType")
         private String transactionType;
         
         @JsonProperty("resource_type")
+        @JsonAlias("resourceType")
         private String resourceType;
         
         @JsonProperty("secondary_user_roles")
+        @JsonAlias("secondaryUserRoles")
         private List<String> secondaryUserRoles;
         
+        @JsonIgnore
+        private transient volatile RolePermissions rolePermissions;
+        
         // Getters and Setters
-        public List<String> getUserRoles() { return userRoles; }
-        public void setUserRoles(List<String> userRoles) { this.userRoles = userRoles; }
+        public List<UserRole> getUserRoles() { return userRoles; }
+        public void setUserRoles(List<UserRole> userRoles) {
+            this.userRoles = userRoles;
+            this.rolePermissions = null;
+        }
+        
+        /**
+         * The user roles compiled for permission checks; compiled on first use
+         * and kept with this configuration, concurrent first calls may both
+         * compile, with identical results
+         */
+        @JsonIgnore
+        public RolePermissions getRolePermissions() {
+            RolePermissions compiled = rolePermissions;
+            if (compiled == null) {
+                compiled = RolePermissions.compile(userRoles);
+                rolePermissions = compiled;
+            }
+            return compiled;
+        }
         
         public String getContextType() { return contextType; }
         public void setContextType(String contextType) { this.contextType = contextType; }
@@ -137,23 +190,49 @@ public class DomainConfig {
     
     public static class DomainWorkflows {
         @JsonProperty("transaction_states")
-        private List<String> transactionStates;
+        @JsonAlias("transactionStates")
+        private List<TransactionState> transactionStates;
         
         @JsonProperty("payment_required")
+        @JsonAlias("paymentRequired")
         private Boolean paymentRequired;
         
         @JsonProperty("location_required")
+        @JsonAlias("locationRequired")
         private Boolean locationRequired;
         
         @JsonProperty("approval_workflow")
+        @JsonAlias("approvalWorkflow")
         private Boolean approvalWorkflow;
         
         @JsonProperty("rating_system")
+        @JsonAlias("ratingSystem")
         private Boolean ratingSystem;
         
+        @JsonIgnore
+        private transient volatile WorkflowStateMachine stateMachine;
+        
         // Getters and Setters
-        public List<String> getTransactionStates() { return transactionStates; }
-        public void setTransactionStates(List<String> transactionStates) { this.transactionStates = transactionStates; }
+        public List<TransactionState> getTransactionStates() { return transactionStates; }
+        public void setTransactionStates(List<TransactionState> transactionStates) {
+            this.transactionStates = transactionStates;
+            this.stateMachine = null;
+        }
+        
+        /**
+         * The transaction states compiled for transition checks; compiled on
+         * first use and kept with this configuration, concurrent first calls
+         * may both compile, with identical results
+         */
+        @JsonIgnore
+        public WorkflowStateMachine getStateMachine() {
+            WorkflowStateMachine compiled = stateMachine;
+            if (compiled == null) {
+                compiled = WorkflowStateMachine.compile(transactionStates);
+                stateMachine = compiled;
+            }
+            return compiled;
+        }
         
         public Boolean getPaymentRequired() { return paymentRequired; }
         public void setPaymentRequired(Boolean paymentRequired) { this.paymentRequired = paymentRequired; }
@@ -168,11 +247,100 @@ public class DomainConfig {
         public void setRatingSystem(Boolean ratingSystem) { this.ratingSystem = ratingSystem; }
     }
     
+    /**
+     * A user role and the permissions it grants. A bare string is read as a
+     * role without permissions, which is how roles were stored before they
+     * carried their permissions.
+     */
+    public static class UserRole {
+        @JsonProperty("role")
+        private String role;
+        
+        @JsonProperty("display_name")
+        @JsonAlias("displayName")
+        private String displayName;
+        
+        @JsonProperty("permissions")
+        private List<String> permissions;
+        
+        public UserRole() {
+        }
+        
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        public UserRole(String role) {
+            this.role = role;
+        }
+        
+        public UserRole(String role, List<String> permissions) {
+            this.role = role;
+            this.permissions = permissions;
+        }
+        
+        // Getters and Setters
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
+        
+        public String getDisplayName() { return displayName; }
+        public void setDisplayName(String displayName) { this.displayName = displayName; }
+        
+        public List<String> getPermissions() { return permissions; }
+        public void setPermissions(List<String> permissions) { this.permissions = permissions; }
+    }
+    
+    /**
+     * One state of the transaction workflow and the states it may move to
+     * next. A bare string is read as a state without transitions, which is
+     * how states were stored before they carried their transitions.
+     */
+    public static class TransactionState {
+        @JsonProperty("state")
+        private String state;
+        
+        @JsonProperty("display_name")
+        @JsonAlias("displayName")
+        private String displayName;
+        
+        @JsonProperty("description")
+        private String description;
+        
+        @JsonProperty("next_states")
+        @JsonAlias("nextStates")
+        private List<String> nextStates;
+        
+        public TransactionState() {
+        }
+        
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        public TransactionState(String state) {
+            this.state = state;
+        }
+        
+        public TransactionState(String state, List<String> nextStates) {
+            this.state = state;
+            this.nextStates = nextStates;
+        }
+        
+        // Getters and Setters
+        public String getState() { return state; }
+        public void setState(String state) { this.state = state; }
+        
+        public String getDisplayName() { return displayName; }
+        public void setDisplayName(String displayName) { this.displayName = displayName; }
+        
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+        
+        public List<String> getNextStates() { return nextStates; }
+        public void setNextStates(List<String> nextStates) { this.nextStates = nextStates; }
+    }
+    
     public static class DomainTerminology {
         @JsonProperty("user_primary")
+        @JsonAlias("userPrimary")
         private String userPrimary;
         
         @JsonProperty("user_secondary")
+        @JsonAlias("userSecondary")
         private String userSecondary;
         
         @JsonProperty("context")
@@ -185,9 +353,11 @@ public class DomainConfig {
         private String resource;
         
         @JsonProperty("context_plural")
+        @JsonAlias("contextPlural")
         private String contextPlural;
         
         @JsonProperty("transaction_plural")
+        @JsonAlias("transactionPlural")
         private String transactionPlural;
         
         // Getters and Setters
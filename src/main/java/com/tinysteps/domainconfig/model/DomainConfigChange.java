@@ -0,0 +1,29 @@
+package com.tinysteps.domainconfig.model;
+
+/**
+ * A single entry of the change feed: the latest state of one domain as of
+ * the given revision. A deleted domain carries no config.
+ */
+public class DomainConfigChange {
+    
+    private final String domainName;
+    private final long revision;
+    private final boolean deleted;
+    private final DomainConfig config;
+    
+    public DomainConfigChange(String domainName, long revision, DomainConfig config) {
+        this.domainName = domainName;
+        this.revision = revision;
+        this.deleted = config == null;
+        this.config = config;
+    }
+    
+    // Getters
+    public String getDomainName() { return domainName; }
+    
+    public long getRevision() { return revision; }
+    
+    public boolean isDeleted() { return deleted; }
+    
+    public DomainConfig getConfig() { return config; }
+}
\ No newline at end of file
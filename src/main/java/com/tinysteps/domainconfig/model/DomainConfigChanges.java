@@ -0,0 +1,23 @@
+package com.tinysteps.domainconfig.model;
+
+import java.util.List;
+
+/**
+ * Response of the change feed. Clients pass {@code revision} back as
+ * {@code since} on their next call.
+ */
+public class DomainConfigChanges {
+    
+    private final long revision;
+    private final List<DomainConfigChange> changes;
+    
+    public DomainConfigChanges(long revision, List<DomainConfigChange> changes) {
+        this.revision = revision;
+        this.changes = changes;
+    }
+    
+    // Getters
+    public long getRevision() { return revision; }
+    
+    public List<DomainConfigChange> getChanges() { return changes; }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.tinysteps.domainconfig.model;
+
+import java.util.List;
+
+/**
+ * One page of the keyset-paginated listing. Clients pass {@code next} back
+ * as {@code after} to get the following page; it is null on the last page.
+ */
+public class DomainConfigPage {
+    
+    private final List<DomainConfig> items;
+    private final String next;
+    
+    public DomainConfigPage(List<DomainConfig> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+    
+    // Getters
+    public List<DomainConfig> getItems() { return items; }
+    
+    public String getNext() { return next; }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.tinysteps.domainconfig.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Counts cover every item read; only the first
+ * {@link #MAX_ERRORS} per-item errors are kept so the report stays small
+ * whatever the input size.
+ */
+public class ImportReport {
+    
+    public static final int MAX_ERRORS = 1000;
+    
+    private long read;
+    private long imported;
+    private long skipped;
+    private long rejected;
+    private boolean committed;
+    private String failure;
+    private long durationMillis;
+    private final List<ImportError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+    
+    public void recordImported() {
+        read++;
+        imported++;
+    }
+    
+    public void recordSkipped() {
+        read++;
+        skipped++;
+    }
+    
+    public void recordRejected(String source, String domainName, String message) {
+        read++;
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new ImportError(source, domainName, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+    
+    // Getters and Setters
+    public long getRead() { return read; }
+    
+    public long getImported() { return imported; }
+    
+    public long getSkipped() { return skipped; }
+    
+    public long getRejected() { return rejected; }
+    
+    public boolean isCommitted() { return committed; }
+    public void setCommitted(boolean committed) { this.committed = committed; }
+    
+    /**
+     * Why the import was rolled back, if it was
+     */
+    public String getFailure() { return failure; }
+    public void setFailure(String failure) { this.failure = failure; }
+    
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+    
+    public List<ImportError> getErrors() { return errors; }
+    
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    
+    /**
+     * An item that could not be parsed or failed validation
+     */
+    public static class ImportError {
+        
+        private final String source;
+        private final String domainName;
+        private final String message;
+        
+        public ImportError(String source, String domainName, String message) {
+            this.source = source;
+            this.domainName = domainName;
+            this.message = message;
+        }
+        
+        public String getSource() { return source; }
+        
+        public String getDomainName() { return domainName; }
+        
+        public String getMessage() { return message; }
+    }
+}
\ No newline at end of file
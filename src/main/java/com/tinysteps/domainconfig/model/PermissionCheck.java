@@ -0,0 +1,31 @@
+package com.tinysteps.domainconfig.model;
+
+/**
+ * A permission to check for a user role. Requests leave {@code granted}
+ * out; answers fill it in.
+ */
+public class PermissionCheck {
+    
+    private String role;
+    private String permission;
+    private Boolean granted;
+    
+    public PermissionCheck() {
+    }
+    
+    public PermissionCheck(String role, String permission, Boolean granted) {
+        this.role = role;
+        this.permission = permission;
+        this.granted = granted;
+    }
+    
+    // Getters and Setters
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+    
+    public String getPermission() { return permission; }
+    public void setPermission(String permission) { this.permission = permission; }
+    
+    public Boolean getGranted() { return granted; }
+    public void setGranted(Boolean granted) { this.granted = granted; }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.tinysteps.domainconfig.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A domain's user roles compiled for permission checks. Every distinct
+ * permission name is interned to a dense id and each role keeps the ids it
+ * grants as a bitset, so a check is two map lookups and a bit test without
+ * allocating. Immutable once compiled.
+ */
+public class RolePermissions {
+    
+    private static final RolePermissions EMPTY = new RolePermissions(Map.of(), Map.of());
+    
+    private final Map<String, Integer> permissionIds;
+    private final Map<String, long[]> roles;
+    
+    private RolePermissions(Map<String, Integer> permissionIds, Map<String, long[]> roles) {
+        this.permissionIds = permissionIds;
+        this.roles = roles;
+    }
+    
+    /**
+     * Compile the given roles; a repeated role keeps its first definition
+     */
+    public static RolePermissions compile(List<DomainConfig.UserRole> userRoles) {
+        if (userRoles == null || userRoles.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, Integer> permissionIds = new HashMap<>();
+        for (DomainConfig.UserRole userRole : userRoles) {
+            if (userRole != null && userRole.getPermissions() != null) {
+                for (String permission : userRole.getPermissions()) {
+                    if (permission != null) {
+                        permissionIds.putIfAbsent(permission, permissionIds.size());
+                    }
+                }
+            }
+        }
+        
+        int words = (permissionIds.size() + 63) >>> 6;
+        Map<String, long[]> roles = new HashMap<>();
+        for (DomainConfig.UserRole userRole : userRoles) {
+            if (userRole == null || userRole.getRole() == null || roles.containsKey(userRole.getRole())) {
+                continue;
+            }
+            long[] granted = new long[words];
+            if (userRole.getPermissions() != null) {
+                for (String permission : userRole.getPermissions()) {
+                    if (permission != null) {
+                        int id = permissionIds.get(permission);
+                        granted[id >>> 6] |= 1L << id;
+                    }
+                }
+            }
+            roles.put(userRole.getRole(), granted);
+        }
+        return new RolePermissions(permissionIds, roles);
+    }
+    
+    /**
+     * Whether the role grants the permission; false when either is not defined
+     */
+    public boolean hasPermission(String role, String permission) {
+        long[] granted = roles.get(role);
+        Integer id = permissionIds.get(permission);
+        if (granted == null || id == null) {
+            return false;
+        }
+        return (granted[id >>> 6] & (1L << id)) != 0;
+    }
+    
+    public boolean isRole(String role) {
+        return roles.containsKey(role);
+    }
+    
+    public int getRoleCount() { return roles.size(); }
+    
+    public int getPermissionCount() { return permissionIds.size(); }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.tinysteps.domainconfig.model;
+
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized, immutable response body for a domain configuration
+ * together with its strong ETag. Bodies meant for a cache are compressed
+ * once, up front, when large enough to benefit, so the gzip variant is part
+ * of the entry from the moment it is cached and counts towards its weight.
+ */
+public class SerializedConfig {
+    
+    /**
+     * Smallest body worth sending gzip-compressed
+     */
+    public static final int GZIP_MIN_SIZE = 1024;
+    
+    private final byte[] body;
+    private final String etag;
+    private final String gzipEtag;
+    private final byte[] gzipBody;
+    
+    /**
+     * A body sent once and never cached, without a gzip variant
+     */
+    public SerializedConfig(byte[] body) {
+        this(body, false);
+    }
+    
+    /**
+     * A body with a gzip variant if {@code compress} is set and the body is at
+     * least {@link #GZIP_MIN_SIZE} bytes
+     */
+    public SerializedConfig(byte[] body, boolean compress) {
+        this.body = body;
+        String digest = DigestUtils.md5DigestAsHex(body);
+        this.etag = "\"" + digest + "\"";
+        this.gzipEtag = "\"" + digest + "-gzip\"";
+        this.gzipBody = compress && body.length >= GZIP_MIN_SIZE ? gzip(body) : null;
+    }
+    
+    // Getters
+    public byte[] getBody() { return body; }
+    
+    public String getEtag() { return etag; }
+    
+    /**
+     * Gzip-compressed body, or null when the body was not compressed
+     */
+    public byte[] getGzipBody() { return gzipBody; }
+    
+    /**
+     * Strong ETag of the gzip-compressed representation, distinct from {@link #getEtag()}
+     */
+    public String getGzipEtag() { return gzipEtag; }
+    
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.tinysteps.domainconfig.model;
+
+/**
+ * A workflow transition to check, {@code from} one state {@code to} another.
+ * Requests leave {@code allowed} out; answers fill it in.
+ */
+public class TransitionCheck {
+    
+    private String from;
+    private String to;
+    private Boolean allowed;
+    
+    public TransitionCheck() {
+    }
+    
+    public TransitionCheck(String from, String to, Boolean allowed) {
+        this.from = from;
+        this.to = to;
+        this.allowed = allowed;
+    }
+    
+    // Getters and Setters
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+    
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+    
+    public Boolean getAllowed() { return allowed; }
+    public void setAllowed(Boolean allowed) { this.allowed = allowed; }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.tinysteps.domainconfig.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A domain's transaction workflow compiled for constant-time transition
+ * checks. States are numbered in declaration order and the allowed
+ * transitions are kept as an adjacency bit matrix, one row of bits per
+ * source state. Immutable once compiled.
+ */
+public class WorkflowStateMachine {
+    
+    private static final WorkflowStateMachine EMPTY = new WorkflowStateMachine(Map.of(), new long[0], 0);
+    
+    private final Map<String, Integer> index;
+    private final long[] transitions;
+    private final int wordsPerState;
+    
+    private WorkflowStateMachine(Map<String, Integer> index, long[] transitions, int wordsPerState) {
+        this.index = index;
+        this.transitions = transitions;
+        this.wordsPerState = wordsPerState;
+    }
+    
+    /**
+     * Compile the given states; a repeated state keeps its first definition
+     * and next states that are not defined are dropped
+     */
+    public static WorkflowStateMachine compile(List<DomainConfig.TransactionState> states) {
+        if (states == null || states.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, Integer> index = new HashMap<>();
+        for (DomainConfig.TransactionState state : states) {
+            if (state != null && state.getState() != null) {
+                index.putIfAbsent(state.getState(), index.size());
+            }
+        }
+        
+        int wordsPerState = (index.size() + 63) >>> 6;
+        long[] transitions = new long[index.size() * wordsPerState];
+        boolean[] compiled = new boolean[index.size()];
+        for (DomainConfig.TransactionState state : states) {
+            if (state == null || state.getState() == null || state.getNextStates() == null) {
+                continue;
+            }
+            int from = index.get(state.getState());
+            if (compiled[from]) {
+                continue;
+            }
+            compiled[from] = true;
+            for (String nextState : state.getNextStates()) {
+                Integer to = index.get(nextState);
+                if (to != null) {
+                    transitions[from * wordsPerState + (to >>> 6)] |= 1L << to;
+                }
+            }
+        }
+        return new WorkflowStateMachine(index, transitions, wordsPerState);
+    }
+    
+    /**
+     * Whether the workflow allows moving from one state directly to another;
+     * false when either state is not defined
+     */
+    public boolean isAllowed(String from, String to) {
+        Integer source = index.get(from);
+        Integer target = index.get(to);
+        if (source == null || target == null) {
+            return false;
+        }
+        return (transitions[source * wordsPerState + (target >>> 6)] & (1L << target)) != 0;
+    }
+    
+    public boolean isState(String state) {
+        return index.containsKey(state);
+    }
+    
+    public int getStateCount() { return index.size(); }
+}
\ No newline at end of file
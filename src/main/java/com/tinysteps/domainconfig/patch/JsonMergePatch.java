@@ -0,0 +1,45 @@
+package com.tinysteps.domainconfig.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * RFC 7396 JSON Merge Patch on Jackson trees: objects are merged member by
+ * member, {@code null} removes a member and anything else replaces the target.
+ */
+public final class JsonMergePatch {
+    
+    private JsonMergePatch() {
+    }
+    
+    /**
+     * Apply the patch to a copy of the target; the target is not modified
+     */
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        return merge(target != null ? target.deepCopy() : null, patch);
+    }
+    
+    private static JsonNode merge(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch.deepCopy();
+        }
+        
+        ObjectNode result = target != null && target.isObject()
+            ? (ObjectNode) target
+            : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                result.set(member.getKey(), merge(result.get(member.getKey()), member.getValue()));
+            }
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.tinysteps.domainconfig.patch;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Comparator;
+
+/**
+ * RFC 6902 JSON Patch on Jackson trees, supporting {@code add},
+ * {@code remove}, {@code replace}, {@code move}, {@code copy} and
+ * {@code test}.
+ */
+public final class JsonPatch {
+    
+    /**
+     * Structural equality for {@code test}, with numbers compared by value
+     */
+    private static final Comparator<JsonNode> NUMERIC_AWARE = (a, b) -> {
+        if (a.isNumber() && b.isNumber()) {
+            return a.decimalValue().compareTo(b.decimalValue());
+        }
+        return a.equals(b) ? 0 : 1;
+    };
+    
+    private JsonPatch() {
+    }
+    
+    /**
+     * Apply the operations in order to a copy of the document; the document
+     * is not modified, even if an operation fails
+     */
+    public static JsonNode apply(JsonNode document, JsonNode patch) {
+        if (!patch.isArray()) {
+            throw new JsonPatchException("A JSON Patch must be an array of operations");
+        }
+        
+        JsonNode result = document.deepCopy();
+        for (JsonNode operation : patch) {
+            result = applyOperation(result, operation);
+        }
+        return result;
+    }
+    
+    private static JsonNode applyOperation(JsonNode document, JsonNode operation) {
+        String op = requiredText(operation, "op");
+        JsonPointer path = requiredPointer(operation, "path");
+        
+        switch (op) {
+            case "add":
+                return add(document, path, requiredValue(operation));
+            case "remove":
+                remove(document, path);
+                return document;
+            case "replace":
+                // The target must exist, unlike for add
+                get(document, path);
+                if (path.matches()) {
+                    return requiredValue(operation);
+                }
+                remove(document, path);
+                return add(document, path, requiredValue(operation));
+            case "move": {
+                JsonPointer from = requiredPointer(operation, "from");
+                if (path.toString().startsWith(from + "/")) {
+                    throw new JsonPatchException("Cannot move " + from + " into its own child " + path);
+                }
+                JsonNode value = get(document, from);
+                remove(document, from);
+                return add(document, path, value);
+            }
+            case "copy":
+                return add(document, path, get(document, requiredPointer(operation, "from")).deepCopy());
+            case "test":
+                if (!get(document, path).equals(NUMERIC_AWARE, requiredValue(operation))) {
+                    throw new JsonPatchException("Test failed at " + path);
+                }
+                return document;
+            default:
+                throw new JsonPatchException("Unsupported operation '" + op + "'");
+        }
+    }
+    
+    private static JsonNode add(JsonNode document, JsonPointer path, JsonNode value) {
+        if (path.matches()) {
+            return value;
+        }
+        
+        JsonNode parent = document.at(path.head());
+        String member = path.last().getMatchingProperty();
+        if (parent.isObject()) {
+            ((ObjectNode) parent).set(member, value);
+        } else if (parent.isArray()) {
+            ArrayNode array = (ArrayNode) parent;
+            if ("-".equals(member)) {
+                array.add(value);
+            } else {
+                array.insert(index(member, array.size(), path), value);
+            }
+        } else {
+            throw new JsonPatchException("No object or array to add to at " + path);
+        }
+        return document;
+    }
+    
+    private static void remove(JsonNode document, JsonPointer path) {
+        if (path.matches()) {
+            throw new JsonPatchException("Cannot remove the whole document");
+        }
+        
+        JsonNode parent = document.at(path.head());
+        String member = path.last().getMatchingProperty();
+        if (parent.isObject() && parent.has(member)) {
+            ((ObjectNode) parent).remove(member);
+        } else if (parent.isArray()) {
+            ((ArrayNode) parent).remove(index(member, parent.size() - 1, path));
+        } else {
+            throw new JsonPatchException("Nothing to remove at " + path);
+        }
+    }
+    
+    private static JsonNode get(JsonNode document, JsonPointer path) {
+        JsonNode value = document.at(path);
+        if (value.isMissingNode()) {
+            throw new JsonPatchException("No value at " + path);
+        }
+        return value;
+    }
+    
+    private static int index(String member, int max, JsonPointer path) {
+        if (!member.matches("0|[1-9][0-9]{0,8}")) {
+            throw new JsonPatchException("Invalid array index at " + path);
+        }
+        int index = Integer.parseInt(member);
+        if (index > max) {
+            throw new JsonPatchException("Array index out of bounds at " + path);
+        }
+        return index;
+    }
+    
+    private static String requiredText(JsonNode operation, String field) {
+        JsonNode value = operation.get(field);
+        if (value == null || !value.isTextual()) {
+            throw new JsonPatchException("Operation " + operation + " has no '" + field + "'");
+        }
+        return value.asText();
+    }
+    
+    private static JsonPointer requiredPointer(JsonNode operation, String field) {
+        try {
+            return JsonPointer.compile(requiredText(operation, field));
+        } catch (IllegalArgumentException e) {
+            throw new JsonPatchException("Invalid JSON Pointer in '" + field + "': " + e.getMessage());
+        }
+    }
+    
+    private static JsonNode requiredValue(JsonNode operation) {
+        JsonNode value = operation.get("value");
+        if (value == null) {
+            throw new JsonPatchException("Operation " + operation + " has no 'value'");
+        }
+        return value.deepCopy();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.tinysteps.domainconfig.patch;
+
+/**
+ * A patch document is malformed or cannot be applied to its target.
+ */
+public class JsonPatchException extends RuntimeException {
+    
+    public JsonPatchException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
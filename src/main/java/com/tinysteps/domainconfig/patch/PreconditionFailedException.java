@@ -0,0 +1,12 @@
+package com.tinysteps.domainconfig.patch;
+
+/**
+ * The configuration a conditional patch targets no longer has any of the
+ * entity tags its If-Match header names.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
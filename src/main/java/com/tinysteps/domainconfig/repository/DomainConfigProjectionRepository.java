@@ -0,0 +1,16 @@
+package com.tinysteps.domainconfig.repository;
+
+import java.util.List;
+
+/**
+ * Queries selecting a caller-chosen subset of columns, implemented in
+ * {@link DomainConfigProjectionRepositoryImpl}.
+ */
+public interface DomainConfigProjectionRepository {
+    
+    /**
+     * Select only the given attributes of every active domain configuration,
+     * ordered by domain name; one value per attribute, in order, per row
+     */
+    List<Object[]> findActiveAttributes(List<String> attributes);
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.tinysteps.domainconfig.repository;
+
+import com.tinysteps.domainconfig.model.DomainConfig;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DomainConfigProjectionRepositoryImpl implements DomainConfigProjectionRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<Object[]> findActiveAttributes(List<String> attributes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<DomainConfig> root = query.from(DomainConfig.class);
+        
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            selections.add(root.get(attribute));
+        }
+        query.multiselect(selections)
+            .where(builder.isTrue(root.get("isActive")))
+            .orderBy(builder.asc(root.get("domainName")));
+        
+        // Scalar selections are never managed, so nothing is snapshotted for dirty checking
+        List<Object[]> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            rows.add(tuple.toArray());
+        }
+        return rows;
+    }
+}
\ No newline at end of file
@@ -1,47 +1,115 @@
 package com.tinysteps.domainconfig.repository;
 
 import com.tinysteps.domainconfig.model.DomainConfig;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface DomainConfigRepository extends JpaRepository<DomainConfig, String> {
+public interface DomainConfigRepository extends JpaRepository<DomainConfig, String>, DomainConfigProjectionRepository {
     
     /**
      * Find domain configuration by domain name
      */
     Optional<DomainConfig> findByDomainNameAndIsActiveTrue(String domainName);
     
+    /**
+     * Find the active configuration of a domain and lock its row until the
+     * transaction ends ({@code SELECT ... FOR UPDATE})
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT dc FROM DomainConfig dc WHERE dc.domainName = :domainName AND dc.isActive = true")
+    Optional<DomainConfig> findActiveForUpdate(@Param("domainName") String domainName);
+    
+    /**
+     * Find the active configurations among the given domain names
+     */
+    List<DomainConfig> findByDomainNameInAndIsActiveTrue(Collection<String> domainNames);
+    
     /**
      * Find all active domain configurations
      */
     List<DomainConfig> findByIsActiveTrueOrderByDomainName();
     
+    /**
+     * Find up to {@code limit} active configurations after the given domain
+     * name, in domain name order (keyset pagination on the unique index)
+     */
+    List<DomainConfig> findByIsActiveTrueAndDomainNameGreaterThanOrderByDomainName(String domainName, Limit limit);
+    
+    /**
+     * Stream all active configurations in domain name order, fetching rows
+     * from the database in chunks; must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "50"))
+    @Query("SELECT dc FROM DomainConfig dc WHERE dc.isActive = true ORDER BY dc.domainName")
+    Stream<DomainConfig> streamActiveOrderByDomainName();
+    
     /**
      * Check if domain name exists
      */
     boolean existsByDomainName(String domainName);
     
     /**
-     * Find domain configurations by context type
+     * Find domain configurations by context type (expression index idx_domain_configs_context_type)
      */
-    @Query("SELECT dc FROM DomainConfig dc WHERE dc.isActive = true AND JSON_EXTRACT(dc.entities, '$.context_type') = :contextType")
+    @Query(value = "SELECT * FROM domain_configs WHERE is_active = true AND entities ->> 'context_type' = :contextType",
+           nativeQuery = true)
     List<DomainConfig> findByContextType(@Param("contextType") String contextType);
     
     /**
-     * Find domain configurations that require payment
+     * Find domain configurations that require payment; a containment match,
+     * so it is answered from the GIN index idx_domain_configs_workflows
      */
-    @Query("SELECT dc FROM DomainConfig dc WHERE dc.isActive = true AND JSON_EXTRACT(dc.workflows, '$.payment_required') = true")
+    @Query(value = "SELECT * FROM domain_configs WHERE is_active = true"
+                 + " AND workflows @> CAST('{\"payment_required\": true}' AS jsonb)",
+           nativeQuery = true)
     List<DomainConfig> findPaymentRequiredDomains();
     
     /**
-     * Find domain configurations by transaction type
+     * Find domain configurations by transaction type (expression index idx_domain_configs_transaction_type)
      */
-    @Query("SELECT dc FROM DomainConfig dc WHERE dc.isActive = true AND JSON_EXTRACT(dc.entities, '$.transaction_type') = :transactionType")
+    @Query(value = "SELECT * FROM domain_configs WHERE is_active = true AND entities ->> 'transaction_type' = :transactionType",
+           nativeQuery = true)
     List<DomainConfig> findByTransactionType(@Param("transactionType") String transactionType);
+    
+    /**
+     * Allocate the next service-wide revision. The transaction-scoped advisory
+     * lock serializes writers, so revisions become visible in commit order.
+     */
+    @Query(value = "SELECT nextval('domain_config_revision_seq') FROM (SELECT pg_advisory_xact_lock(4711042)) AS write_lock",
+           nativeQuery = true)
+    long nextRevision();
+    
+    /**
+     * Take the lock {@link #nextRevision()} takes without allocating a
+     * revision, for writers that may still give up. Writers take it before
+     * any row lock, so they cannot deadlock on each other.
+     */
+    @Query(value = "SELECT count(*) FROM (SELECT pg_advisory_xact_lock(4711042)) AS write_lock", nativeQuery = true)
+    long lockWrites();
+    
+    /**
+     * Find domain name and revision of every soft-deleted configuration
+     */
+    @Query("SELECT dc.domainName, dc.revision FROM DomainConfig dc WHERE dc.isActive = false")
+    List<Object[]> findDeletedRevisions();
+    
+    /**
+     * Highest revision of any configuration, active or deleted
+     */
+    @Query("SELECT COALESCE(MAX(dc.revision), 0) FROM DomainConfig dc")
+    long findMaxRevision();
 }
\ No newline at end of file
@@ -3,16 +3,23 @@ package com.tinysteps.domainconfig.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tinysteps.domainconfig.model.DomainConfig;
 import com.tinysteps.domainconfig.repository.DomainConfigRepository;
-import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -29,51 +36,101 @@ public class DataInitializationService {
     @Autowired
     private ObjectMapper objectMapper;
     
+    @Autowired
+    private DomainConfigValidator domainConfigValidator;
+    
+    @Autowired
+    private DomainConfigCacheInvalidator cacheInvalidator;
+    
+    // Seeding runs on its own thread, outside the @Transactional proxy
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Only created when domain.config.import.on-startup is set
+    @Autowired
+    private ObjectProvider<DomainConfigImportService> domainConfigImportService;
+    
+    @Value("${domain.config.import.on-startup:}")
+    private String startupImportSource;
+    
+    @Value("${domain.config.import.mode:upsert}")
+    private String startupImportMode;
+    
     private final List<String> sampleConfigFiles = Arrays.asList(
         "sample-configs/healthcare-config.json",
         "sample-configs/ecommerce-config.json",
         "sample-configs/cab-booking-config.json"
     );
     
-    @PostConstruct
+    /**
+     * Seed the sample configurations and run the startup import on a
+     * background thread once the application is ready, so requests are served
+     * (from the snapshot or the database) while seeding is still under way
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void startInitialization() {
+        Thread thread = new Thread(this::initializeData, "data-initialization");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
     public void initializeData() {
         logger.info("Starting domain configuration data initialization...");
         
         try {
-            loadSampleConfigurations();
+            if (loadSampleConfigurations() > 0) {
+                // Written directly through the repository, so drop whatever was cached or indexed before
+                cacheInvalidator.onBulkChange();
+            }
+            if (!startupImportSource.isBlank()) {
+                domainConfigImportService.getObject().importFrom(Paths.get(startupImportSource),
+                    DomainConfigImportService.Mode.parse(startupImportMode));
+            }
             logger.info("Domain configuration data initialization completed successfully");
         } catch (Exception e) {
             logger.error("Error during domain configuration data initialization: {}", e.getMessage(), e);
         }
     }
     
-    private void loadSampleConfigurations() {
+    /**
+     * Load the sample configurations that are not stored yet, returning how many were saved
+     */
+    private int loadSampleConfigurations() {
+        int saved = 0;
         for (String configFile : sampleConfigFiles) {
             try {
-                loadConfigurationFromFile(configFile);
+                if (loadConfigurationFromFile(configFile)) {
+                    saved++;
+                }
             } catch (Exception e) {
                 logger.error("Error loading configuration from file {}: {}", configFile, e.getMessage(), e);
             }
         }
+        return saved;
     }
     
-    private void loadConfigurationFromFile(String configFile) throws IOException {
+    private boolean loadConfigurationFromFile(String configFile) throws IOException {
         logger.info("Loading configuration from file: {}", configFile);
         
         ClassPathResource resource = new ClassPathResource(configFile);
         if (!resource.exists()) {
             logger.warn("Configuration file {} does not exist, skipping...", configFile);
-            return;
+            return false;
         }
         
+        DomainConfig domainConfig;
         try (InputStream inputStream = resource.getInputStream()) {
-            DomainConfig domainConfig = objectMapper.readValue(inputStream, DomainConfig.class);
-            
+            domainConfig = objectMapper.readValue(inputStream, DomainConfig.class);
+        }
+        
+        // The existence check, revision and insert commit together, holding the revision lock until the insert is visible
+        return Boolean.TRUE.equals(new TransactionTemplate(transactionManager).execute(status -> {
             // Check if configuration already exists
             if (domainConfigRepository.existsByDomainName(domainConfig.getDomainName())) {
                 logger.info("Domain configuration '{}' already exists, skipping initialization", 
                     domainConfig.getDomainName());
-                return;
+                return false;
             }
             
             // Set timestamps
@@ -82,78 +139,16 @@ public class DataInitializationService {
             domainConfig.setUpdatedAt(now);
             
             // Validate configuration before saving
-            if (validateConfiguration(domainConfig)) {
+            String violation = domainConfigValidator.findMissingField(domainConfig);
+            if (violation == null) {
+                domainConfig.setRevision(domainConfigRepository.nextRevision());
                 domainConfigRepository.save(domainConfig);
                 logger.info("Successfully loaded domain configuration: {}", domainConfig.getDomainName());
-            } else {
-                logger.error("Invalid configuration in file: {}", configFile);
+                return true;
             }
-        }
-    }
-    
-    private boolean validateConfiguration(DomainConfig config) {
-        if (config.getDomainName() == null || config.getDomainName().trim().isEmpty()) {
-            logger.error("Domain name is required");
+            logger.error("Invalid configuration in file {}: {}", configFile, violation);
             return false;
-        }
-        
-        if (config.getEntities() == null) {
-            logger.error("Entities configuration is required");
-            return false;
-        }
-        
-        if (config.getWorkflows() == null) {
-            logger.error("Workflows configuration is required");
-            return false;
-        }
-        
-        if (config.getTerminology() == null) {
-            logger.error("Terminology configuration is required");
-            return false;
-        }
-        
-        // Validate entities
-        DomainConfig.DomainEntities entities = config.getEntities();
-        if (entities.getUserRoles() == null || entities.getUserRoles().isEmpty()) {
-            logger.error("User roles are required");
-            return false;
-        }
-        
-        if (entities.getContextType() == null || entities.getContextType().trim().isEmpty()) {
-            logger.error("Context type is required");
-            return false;
-        }
-        
-        if (entities.getTransactionType() == null || entities.getTransactionType().trim().isEmpty()) {
-            logger.error("Transaction type is required");
-            return false;
-        }
-        
-        // Validate workflows
-        DomainConfig.DomainWorkflows workflows = config.getWorkflows();
-        if (workflows.getTransactionStates() == null || workflows.getTransactionStates().isEmpty()) {
-            logger.error("Transaction states are required");
-            return false;
-        }
-        
-        // Validate terminology
-        DomainConfig.DomainTerminology terminology = config.getTerminology();
-        if (terminology.getUserPrimary() == null || terminology.getUserPrimary().trim().isEmpty()) {
-            logger.error("Primary user terminology is required");
-            return false;
-        }
-        
-        if (terminology.getContext() == null || terminology.getContext().trim().isEmpty()) {
-            logger.error("Context terminology is required");
-            return false;
-        }
-        
-        if (terminology.getTransaction() == null || terminology.getTransaction().trim().isEmpty()) {
-            logger.error("Transaction terminology is required");
-            return false;
-        }
-        
-        return true;
+        }));
     }
     
     /**
@@ -174,6 +169,7 @@ public class DataInitializationService {
     /**
      * Get initialization status
      */
+    @Transactional(readOnly = true)
     public boolean isInitialized() {
         long count = domainConfigRepository.count();
         return count >= sampleConfigFiles.size();
@@ -182,6 +178,7 @@ public class DataInitializationService {
     /**
      * Get loaded domain count
      */
+    @Transactional(readOnly = true)
     public long getLoadedDomainCount() {
         return domainConfigRepository.count();
     }
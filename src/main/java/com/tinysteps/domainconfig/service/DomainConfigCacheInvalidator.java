@@ -0,0 +1,238 @@
+package com.tinysteps.domainconfig.service;
+
+import com.tinysteps.domainconfig.invalidation.ConfigChangeEvent;
+import com.tinysteps.domainconfig.invalidation.InvalidationBus;
+import com.tinysteps.domainconfig.invalidation.InvalidationListener;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.repository.DomainConfigRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Key-level cache invalidation for writes to a single domain.
+ * <p>
+ * A change to one domain only evicts that domain's entries and the
+ * aggregate list; derived lookups are re-indexed for the affected keys only
+ * by the {@link DomainConfigSnapshot}. Local invalidation runs after commit
+ * so a concurrent reader cannot re-cache the pre-write state. Each local
+ * write is broadcast on the {@link InvalidationBus} from inside its
+ * transaction, so other replicas are told exactly when it commits, even if
+ * this process stops right after the commit.
+ */
+@Service
+public class DomainConfigCacheInvalidator implements InvalidationListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainConfigCacheInvalidator.class);
+    
+    /**
+     * Caches keyed by domain name
+     */
+    public static final String[] DOMAIN_CACHES = {
+        "domainConfigs", "domainConfigResponses", "domainConfigCborResponses", "domainConfigSmileResponses"};
+    
+    /**
+     * Caches whose entries aggregate several domains
+     */
+    public static final String[] AGGREGATE_CACHES = {
+        "domainConfigListResponses", "domainConfigProjections"};
+    
+    /**
+     * Odd while an invalidation is in progress, bumped twice by each one
+     */
+    private final AtomicLong generation = new AtomicLong();
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private DomainConfigSnapshotService snapshotService;
+    
+    @Autowired
+    private DomainConfigRepository domainConfigRepository;
+    
+    @Autowired
+    private InvalidationBus invalidationBus;
+    
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(this);
+    }
+    
+    /**
+     * Broadcast a saved configuration with the surrounding transaction and
+     * invalidate after it commits
+     */
+    public void onSaved(DomainConfig savedConfig) {
+        broadcast(changeEvent(savedConfig));
+        afterCommit(() -> {
+            DomainConfig current = Boolean.FALSE.equals(savedConfig.getIsActive()) ? null : savedConfig;
+            invalidate(savedConfig.getDomainName(), current, revisionOf(savedConfig));
+        });
+    }
+    
+    /**
+     * Broadcast a deletion with the surrounding transaction and invalidate
+     * after it commits
+     */
+    public void onDeleted(DomainConfig deletedConfig) {
+        broadcast(changeEvent(deletedConfig));
+        afterCommit(() -> invalidate(deletedConfig.getDomainName(), null, revisionOf(deletedConfig)));
+    }
+    
+    /**
+     * Resynchronize every replica once the surrounding transaction commits a
+     * change to many domains at once
+     */
+    public void onBulkChange() {
+        broadcast(new ConfigChangeEvent(null, 0L, 0L, invalidationBus.getInstanceId()));
+        afterCommit(this::onResync);
+    }
+    
+    /**
+     * Evict everything that depends on the given domain; a null config means
+     * the domain is no longer active
+     */
+    public void invalidate(String domainName, DomainConfig current, long revision) {
+        generation.incrementAndGet();
+        try {
+            for (String cacheName : DOMAIN_CACHES) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null) {
+                    cache.evict(domainName);
+                }
+            }
+            for (String cacheName : AGGREGATE_CACHES) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            snapshotService.apply(domainName, current, revision);
+        } finally {
+            generation.incrementAndGet();
+        }
+        logger.debug("Invalidated cached entries for domain '{}'", domainName);
+    }
+    
+    /**
+     * Current invalidation generation; read it before loading values that are
+     * later passed to {@link #cacheIfCurrent}
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+    
+    /**
+     * Cache values loaded outside the cache's own loader, unless an
+     * invalidation started since {@code loadedAtGeneration} was read: the
+     * values may then predate a commit whose eviction has already run.
+     * Entries already present are left alone.
+     */
+    public void cacheIfCurrent(String cacheName, Map<String, ?> values, long loadedAtGeneration) {
+        if (loadedAtGeneration % 2 != 0) {
+            return;
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> cache =
+            ((CaffeineCache) cacheManager.getCache(cacheName)).getNativeCache();
+        // The check runs under the entry's lock, so a concurrent evict of the same key either sees the value or wins
+        values.forEach((key, value) -> cache.asMap().compute(key,
+            (k, present) -> present != null || generation.get() != loadedAtGeneration ? present : value));
+    }
+    
+    /**
+     * Apply a change made by another replica
+     */
+    @Override
+    public void onChange(ConfigChangeEvent event) {
+        if (invalidationBus.getInstanceId().equals(event.getOrigin())) {
+            return;
+        }
+        if (event.getDomainName() == null) {
+            onResync();
+            return;
+        }
+        
+        // Revisions are ordered across all writers; versions of writes on different replicas need not be
+        DomainConfig known = snapshotService.getSnapshot().getDomainConfig(event.getDomainName());
+        if (known != null && known.getRevision() != null && known.getRevision() >= event.getRevision()) {
+            logger.debug("Ignoring {}, revision {} already applied", event, known.getRevision());
+            snapshotService.acknowledge(event.getRevision());
+            return;
+        }
+        
+        DomainConfig current = domainConfigRepository.findByDomainNameAndIsActiveTrue(event.getDomainName()).orElse(null);
+        invalidate(event.getDomainName(), current, event.getRevision());
+    }
+    
+    /**
+     * Drop everything cached locally after events may have been missed
+     */
+    @Override
+    public void onResync() {
+        logger.info("Resynchronizing domain configuration caches");
+        generation.incrementAndGet();
+        try {
+            for (String cacheName : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            snapshotService.reload();
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+    
+    private ConfigChangeEvent changeEvent(DomainConfig domainConfig) {
+        long version = domainConfig.getVersion() != null ? domainConfig.getVersion() : 0L;
+        return new ConfigChangeEvent(domainConfig.getDomainName(), version, revisionOf(domainConfig),
+            invalidationBus.getInstanceId());
+    }
+    
+    /**
+     * Publish inside the current transaction, so the event is delivered if and
+     * only if the write commits; a failure fails the write. Without a
+     * transaction the write is already committed, and other replicas fall
+     * back to the snapshot verifier.
+     */
+    private void broadcast(ConfigChangeEvent event) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            invalidationBus.publish(event);
+            return;
+        }
+        try {
+            invalidationBus.publish(event);
+        } catch (RuntimeException e) {
+            logger.error("Could not broadcast {}: {}", event, e.getMessage(), e);
+        }
+    }
+    
+    private static long revisionOf(DomainConfig domainConfig) {
+        return domainConfig.getRevision() != null ? domainConfig.getRevision() : 0L;
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.tinysteps.domainconfig.service;
+
+import com.tinysteps.domainconfig.model.DomainConfigChange;
+import com.tinysteps.domainconfig.model.DomainConfigChanges;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes domain configuration changes to long-poll and Server-Sent Events
+ * watchers. Changes are read from the current {@link DomainConfigSnapshot},
+ * so waking watchers never queries the database. Watchers only advance to the
+ * snapshot revision, below which no change is missing, so a change that
+ * arrives after a later one is still delivered.
+ */
+@Service
+public class DomainConfigChangeFeed {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainConfigChangeFeed.class);
+    
+    @Autowired
+    private DomainConfigSnapshotService snapshotService;
+    
+    private final Queue<PollWaiter> pollWaiters = new ConcurrentLinkedQueue<>();
+    private final Queue<StreamSubscriber> streamSubscribers = new ConcurrentLinkedQueue<>();
+    
+    // Notifying watchers writes to client connections, keep that off the writer's thread
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "config-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    /**
+     * Get changes after the given revision (all active domains when null)
+     */
+    public DomainConfigChanges getChangesSince(Long since) {
+        DomainConfigSnapshot snapshot = snapshotService.getSnapshot();
+        return new DomainConfigChanges(snapshot.getRevision(), snapshot.getChangesSince(since));
+    }
+    
+    /**
+     * Long-poll: complete immediately if anything changed after {@code since},
+     * otherwise when the next change arrives or with no changes on timeout.
+     * A timeout of zero or less does not wait; a DeferredResult would take it
+     * as no timeout at all.
+     */
+    public DeferredResult<DomainConfigChanges> poll(Long since, long timeoutMillis) {
+        DomainConfigChanges changes = getChangesSince(since);
+        DeferredResult<DomainConfigChanges> result = new DeferredResult<>(timeoutMillis,
+            () -> new DomainConfigChanges(changes.getRevision(), List.of()));
+        if (!changes.getChanges().isEmpty() || timeoutMillis <= 0) {
+            result.setResult(changes);
+            return result;
+        }
+        
+        PollWaiter waiter = new PollWaiter(changes.getRevision(), result);
+        result.onCompletion(() -> pollWaiters.remove(waiter));
+        pollWaiters.add(waiter);
+        
+        // A change may have landed between reading the snapshot and registering
+        dispatcher.execute(() -> notifyPollWaiters(snapshotService.getSnapshot()));
+        return result;
+    }
+    
+    /**
+     * Server-Sent Events: stream every change after {@code since} until the
+     * client disconnects or the emitter times out
+     */
+    public SseEmitter stream(Long since, long timeoutMillis) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        StreamSubscriber subscriber = new StreamSubscriber(since, emitter);
+        emitter.onCompletion(() -> streamSubscribers.remove(subscriber));
+        emitter.onTimeout(() -> streamSubscribers.remove(subscriber));
+        emitter.onError(e -> streamSubscribers.remove(subscriber));
+        streamSubscribers.add(subscriber);
+        
+        dispatcher.execute(() -> send(subscriber, snapshotService.getSnapshot()));
+        return emitter;
+    }
+    
+    @EventListener
+    public void onSnapshotUpdated(SnapshotUpdatedEvent event) {
+        DomainConfigSnapshot snapshot = event.getSnapshot();
+        dispatcher.execute(() -> {
+            notifyPollWaiters(snapshot);
+            for (StreamSubscriber subscriber : streamSubscribers) {
+                send(subscriber, snapshot);
+            }
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        streamSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+    
+    private void notifyPollWaiters(DomainConfigSnapshot snapshot) {
+        for (PollWaiter waiter : pollWaiters) {
+            if (snapshot.getRevision() > waiter.since) {
+                List<DomainConfigChange> changes = snapshot.getChangesSince(waiter.since);
+                if (!changes.isEmpty()) {
+                    waiter.result.setResult(new DomainConfigChanges(snapshot.getRevision(), changes));
+                }
+            }
+        }
+    }
+    
+    // Only called on the dispatcher thread, so lastRevision needs no locking
+    private void send(StreamSubscriber subscriber, DomainConfigSnapshot snapshot) {
+        if (subscriber.lastRevision != null && snapshot.getRevision() <= subscriber.lastRevision) {
+            return;
+        }
+        try {
+            for (DomainConfigChange change : snapshot.getChangesSince(subscriber.lastRevision)) {
+                subscriber.emitter.send(SseEmitter.event()
+                    .id(Long.toString(change.getRevision()))
+                    .name("change")
+                    .data(change));
+            }
+            subscriber.lastRevision = snapshot.getRevision();
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping change feed subscriber: {}", e.getMessage());
+            streamSubscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+    
+    private static final class PollWaiter {
+        private final long since;
+        private final DeferredResult<DomainConfigChanges> result;
+        
+        private PollWaiter(long since, DeferredResult<DomainConfigChanges> result) {
+            this.since = since;
+            this.result = result;
+        }
+    }
+    
+    private static final class StreamSubscriber {
+        private Long lastRevision;
+        private final SseEmitter emitter;
+        
+        private StreamSubscriber(Long lastRevision, SseEmitter emitter) {
+            this.lastRevision = lastRevision;
+            this.emitter = emitter;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.tinysteps.domainconfig.service;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams domain configurations out of a directory, a JSON/NDJSON document
+ * or a (gzipped) tar archive, one item at a time. A document may hold a
+ * single object, an array of objects or a sequence of objects (NDJSON); only
+ * the item being parsed is held in memory.
+ */
+class DomainConfigImportReader {
+    
+    private final ObjectReader reader;
+    
+    DomainConfigImportReader(ObjectReader reader) {
+        this.reader = reader;
+    }
+    
+    /**
+     * Read a directory (recursively, in name order), archive or document
+     */
+    void read(Path source, Consumer<ImportItem> sink) throws IOException {
+        if (Files.isDirectory(source)) {
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(source)) {
+                files = walk.filter(Files::isRegularFile)
+                    .filter(file -> isSupported(file.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                read(file, sink);
+            }
+            return;
+        }
+        
+        String name = source.getFileName().toString().toLowerCase(Locale.ROOT);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source))) {
+            read(in, source.toString(), isTar(name), isGzip(name), sink);
+        }
+    }
+    
+    /**
+     * Read a stream that is either a tar archive or a single document
+     */
+    void read(InputStream in, String label, boolean tar, boolean gzip, Consumer<ImportItem> sink) throws IOException {
+        InputStream source = gzip ? new GzipCompressorInputStream(in) : in;
+        if (!tar) {
+            readDocument(source, label, sink);
+            return;
+        }
+        
+        TarArchiveInputStream archive = new TarArchiveInputStream(source);
+        TarArchiveEntry entry;
+        while ((entry = archive.getNextEntry()) != null) {
+            String entryName = entry.getName();
+            if (entry.isFile() && isDocument(entryName.toLowerCase(Locale.ROOT))) {
+                readDocument(archive, label + "!/" + entryName, sink);
+            }
+        }
+    }
+    
+    private void readDocument(InputStream in, String label, Consumer<ImportItem> sink) throws IOException {
+        // The parser closes its source when done; archive entries must stay open
+        InputStream unclosable = new FilterInputStream(in) {
+            @Override
+            public void close() {
+            }
+        };
+        
+        try (MappingIterator<DomainConfig> items = reader.readValues(unclosable)) {
+            while (true) {
+                String itemLabel = label;
+                try {
+                    if (!items.hasNextValue()) {
+                        return;
+                    }
+                    itemLabel = labelOf(label, items.getCurrentLocation());
+                    sink.accept(ImportItem.parsed(itemLabel, items.nextValue()));
+                } catch (DatabindException e) {
+                    // Well-formed JSON that does not map; the iterator skips to the next item
+                    sink.accept(ImportItem.rejected(itemLabel, e.getOriginalMessage()));
+                } catch (JsonProcessingException e) {
+                    // Malformed JSON; nothing after this point can be trusted
+                    sink.accept(ImportItem.rejected(labelOf(label, e.getLocation()),
+                        "Malformed JSON, rest of document skipped: " + e.getOriginalMessage()));
+                    return;
+                }
+            }
+        }
+    }
+    
+    private static String labelOf(String label, JsonLocation location) {
+        return location != null && location.getLineNr() > 0 ? label + ":" + location.getLineNr() : label;
+    }
+    
+    static boolean isSupported(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        return isTar(name) || isDocument(name) || name.endsWith(".gz") && isDocument(name.substring(0, name.length() - 3));
+    }
+    
+    static boolean isTar(String name) {
+        return name.endsWith(".tar") || name.endsWith(".tar.gz") || name.endsWith(".tgz");
+    }
+    
+    static boolean isGzip(String name) {
+        return name.endsWith(".gz") || name.endsWith(".tgz");
+    }
+    
+    private static boolean isDocument(String name) {
+        return name.endsWith(".json") || name.endsWith(".ndjson") || name.endsWith(".jsonl");
+    }
+    
+    /**
+     * One parsed configuration, or the reason it could not be read
+     */
+    static final class ImportItem {
+        
+        final String source;
+        final DomainConfig config;
+        String error;
+        
+        private ImportItem(String source, DomainConfig config, String error) {
+            this.source = source;
+            this.config = config;
+            this.error = error;
+        }
+        
+        static ImportItem parsed(String source, DomainConfig config) {
+            return new ImportItem(source, config, null);
+        }
+        
+        static ImportItem rejected(String source, String error) {
+            return new ImportItem(source, null, error);
+        }
+        
+        String getDomainName() {
+            return config != null ? config.getDomainName() : null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+package com.tinysteps.domainconfig.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.model.ImportReport;
+import com.tinysteps.domainconfig.repository.DomainConfigRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Bulk import of domain configurations.
+ * <p>
+ * Items are streamed from the source and processed in chunks of
+ * {@code domain.config.import.batch-size}: each chunk is validated in
+ * parallel, then written with one JDBC batch of upserts. Only one chunk is in
+ * memory at a time. The whole import runs in a single transaction, so either
+ * every valid item is committed or, on a database or I/O failure, nothing is;
+ * invalid items are reported and skipped. Caches are resynchronized once,
+ * after commit, on every replica.
+ */
+@Service
+@Lazy
+public class DomainConfigImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainConfigImportService.class);
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO domain_configs (id, domain_name, display_name, description, entities, workflows, terminology, "
+            + "custom_settings, is_active, version, revision, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?::jsonb, ?::jsonb, ?::jsonb, ?::jsonb, true, 0, "
+            + "nextval('domain_config_revision_seq'), ?, ?) ";
+    
+    private static final String UPSERT_SQL = INSERT_SQL
+        + "ON CONFLICT (domain_name) DO UPDATE SET "
+        + "display_name = EXCLUDED.display_name, description = EXCLUDED.description, "
+        + "entities = EXCLUDED.entities, workflows = EXCLUDED.workflows, terminology = EXCLUDED.terminology, "
+        + "custom_settings = EXCLUDED.custom_settings, is_active = true, "
+        + "revision = EXCLUDED.revision, "
+        + "updated_at = EXCLUDED.updated_at";
+    
+    private static final String INSERT_NEW_SQL = INSERT_SQL + "ON CONFLICT (domain_name) DO NOTHING";
+    
+    /**
+     * What to do with a configuration whose domain name is already stored
+     */
+    public enum Mode {
+        /** Overwrite the stored configuration and reactivate it if deleted */
+        UPSERT,
+        /** Keep the stored configuration */
+        SKIP_EXISTING;
+        
+        public static Mode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private DomainConfigRepository domainConfigRepository;
+    
+    @Autowired
+    private DomainConfigValidator domainConfigValidator;
+    
+    @Autowired
+    private DomainConfigCacheInvalidator cacheInvalidator;
+    
+    @Value("${domain.config.import.batch-size:500}")
+    private int batchSize;
+    
+    private DomainConfigImportReader reader;
+    private ObjectWriter jsonWriter;
+    
+    @PostConstruct
+    public void init() {
+        reader = new DomainConfigImportReader(objectMapper.readerFor(DomainConfig.class));
+        jsonWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+    
+    /**
+     * Import a directory, JSON/NDJSON document or tar archive on the local file system
+     */
+    public ImportReport importFrom(Path source, Mode mode) {
+        logger.info("Importing domain configurations from {} ({})", source, mode);
+        return runImport(mode, sink -> reader.read(source, sink));
+    }
+    
+    /**
+     * Import from a stream, e.g. an uploaded request body
+     */
+    public ImportReport importFrom(InputStream in, String label, boolean tar, boolean gzip, Mode mode) {
+        logger.info("Importing domain configurations from {} ({})", label, mode);
+        return runImport(mode, sink -> reader.read(in, label, tar, gzip, sink));
+    }
+    
+    private ImportReport runImport(Mode mode, ImportSource source) {
+        ImportReport report = new ImportReport();
+        long start = System.nanoTime();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                // Serializes with other writers until commit; revisions come from the same sequence
+                domainConfigRepository.nextRevision();
+                
+                List<DomainConfigImportReader.ImportItem> chunk = new ArrayList<>(batchSize);
+                try {
+                    source.read(item -> {
+                        chunk.add(item);
+                        if (chunk.size() >= batchSize) {
+                            writeChunk(chunk, mode, report);
+                            chunk.clear();
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                writeChunk(chunk, mode, report);
+                
+                if (report.getImported() > 0) {
+                    cacheInvalidator.onBulkChange();
+                }
+            });
+            report.setCommitted(true);
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof UncheckedIOException ? e.getCause() : e;
+            logger.error("Import rolled back: {}", cause.getMessage(), cause);
+            report.setFailure(cause.getMessage());
+        }
+        report.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+        
+        logger.info("Import {}: {} read, {} imported, {} skipped, {} rejected in {} ms",
+            report.isCommitted() ? "committed" : "rolled back",
+            report.getRead(), report.getImported(), report.getSkipped(), report.getRejected(),
+            report.getDurationMillis());
+        return report;
+    }
+    
+    private void writeChunk(List<DomainConfigImportReader.ImportItem> chunk, Mode mode, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        
+        // Validation is CPU-bound and independent per item
+        chunk.parallelStream()
+            .filter(item -> item.error == null)
+            .forEach(item -> item.error = domainConfigValidator.validate(item.config));
+        
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (DomainConfigImportReader.ImportItem item : chunk) {
+            if (item.error != null) {
+                report.recordRejected(item.source, item.getDomainName(), item.error);
+            } else {
+                rows.add(toRow(item.config, now));
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        
+        int[] counts = jdbcTemplate.batchUpdate(mode == Mode.UPSERT ? UPSERT_SQL : INSERT_NEW_SQL, rows);
+        for (int count : counts) {
+            if (count == 0) {
+                report.recordSkipped();
+            } else {
+                report.recordImported();
+            }
+        }
+    }
+    
+    private Object[] toRow(DomainConfig config, LocalDateTime now) {
+        Timestamp createdAt = Timestamp.valueOf(config.getCreatedAt() != null ? config.getCreatedAt() : now);
+        return new Object[] {
+            UUID.randomUUID().toString(),
+            config.getDomainName(),
+            config.getDisplayName(),
+            config.getDescription(),
+            toJson(config.getEntities()),
+            toJson(config.getWorkflows()),
+            toJson(config.getTerminology()),
+            toJson(config.getCustomSettings()),
+            createdAt,
+            Timestamp.valueOf(now)
+        };
+    }
+    
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return jsonWriter.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ImportSource {
+        void read(Consumer<DomainConfigImportReader.ImportItem> sink) throws IOException;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.tinysteps.domainconfig.service;
+
+import com.github.benmanes.caffeine.cache.Interner;
+import com.tinysteps.domainconfig.model.DomainConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the compact copies of domain configurations held by the caches and
+ * the snapshot. Role, permission and state names, terminology and other
+ * strings repeat heavily across domains; they are interned in weak pools so
+ * every cached domain refers to one shared instance, and string lists with
+ * the same content are shared the same way. Collections are copied at their
+ * exact size and cannot be modified, so a compact copy must be treated as
+ * read-only.
+ */
+public final class DomainConfigInterner {
+    
+    private static final Interner<String> STRINGS = Interner.newWeakInterner();
+    private static final Interner<List<String>> STRING_LISTS = Interner.newWeakInterner();
+    
+    private DomainConfigInterner() {
+    }
+    
+    /**
+     * Copy a configuration into its compact, shared form; the original is left untouched
+     */
+    public static DomainConfig compact(DomainConfig config) {
+        if (config == null) {
+            return null;
+        }
+        DomainConfig copy = new DomainConfig();
+        copy.setId(config.getId());
+        copy.setDomainName(config.getDomainName());
+        copy.setDisplayName(intern(config.getDisplayName()));
+        copy.setDescription(intern(config.getDescription()));
+        copy.setEntities(compact(config.getEntities()));
+        copy.setWorkflows(compact(config.getWorkflows()));
+        copy.setTerminology(compact(config.getTerminology()));
+        copy.setCustomSettings(compactMap(config.getCustomSettings()));
+        copy.setIsActive(config.getIsActive());
+        copy.setVersion(config.getVersion());
+        copy.setRevision(config.getRevision());
+        copy.setCreatedAt(config.getCreatedAt());
+        copy.setUpdatedAt(config.getUpdatedAt());
+        return copy;
+    }
+    
+    private static DomainConfig.DomainEntities compact(DomainConfig.DomainEntities entities) {
+        if (entities == null) {
+            return null;
+        }
+        DomainConfig.DomainEntities copy = new DomainConfig.DomainEntities();
+        if (entities.getUserRoles() != null) {
+            List<DomainConfig.UserRole> userRoles = new ArrayList<>(entities.getUserRoles().size());
+            for (DomainConfig.UserRole userRole : entities.getUserRoles()) {
+                userRoles.add(compact(userRole));
+            }
+            copy.setUserRoles(Collections.unmodifiableList(userRoles));
+        }
+        copy.setContextType(intern(entities.getContextType()));
+        copy.setTransactionType(intern(entities.getTransactionType()));
+        copy.setResourceType(intern(entities.getResourceType()));
+        copy.setSecondaryUserRoles(internList(entities.getSecondaryUserRoles()));
+        return copy;
+    }
+    
+    private static DomainConfig.UserRole compact(DomainConfig.UserRole userRole) {
+        if (userRole == null) {
+            return null;
+        }
+        DomainConfig.UserRole copy = new DomainConfig.UserRole(intern(userRole.getRole()), internList(userRole.getPermissions()));
+        copy.setDisplayName(intern(userRole.getDisplayName()));
+        return copy;
+    }
+    
+    private static DomainConfig.DomainWorkflows compact(DomainConfig.DomainWorkflows workflows) {
+        if (workflows == null) {
+            return null;
+        }
+        DomainConfig.DomainWorkflows copy = new DomainConfig.DomainWorkflows();
+        if (workflows.getTransactionStates() != null) {
+            List<DomainConfig.TransactionState> states = new ArrayList<>(workflows.getTransactionStates().size());
+            for (DomainConfig.TransactionState state : workflows.getTransactionStates()) {
+                states.add(compact(state));
+            }
+            copy.setTransactionStates(Collections.unmodifiableList(states));
+        }
+        copy.setPaymentRequired(workflows.getPaymentRequired());
+        copy.setLocationRequired(workflows.getLocationRequired());
+        copy.setApprovalWorkflow(workflows.getApprovalWorkflow());
+        copy.setRatingSystem(workflows.getRatingSystem());
+        return copy;
+    }
+    
+    private static DomainConfig.TransactionState compact(DomainConfig.TransactionState state) {
+        if (state == null) {
+            return null;
+        }
+        DomainConfig.TransactionState copy = new DomainConfig.TransactionState(intern(state.getState()), internList(state.getNextStates()));
+        copy.setDisplayName(intern(state.getDisplayName()));
+        copy.setDescription(intern(state.getDescription()));
+        return copy;
+    }
+    
+    private static DomainConfig.DomainTerminology compact(DomainConfig.DomainTerminology terminology) {
+        if (terminology == null) {
+            return null;
+        }
+        DomainConfig.DomainTerminology copy = new DomainConfig.DomainTerminology();
+        copy.setUserPrimary(intern(terminology.getUserPrimary()));
+        copy.setUserSecondary(intern(terminology.getUserSecondary()));
+        copy.setContext(intern(terminology.getContext()));
+        copy.setTransaction(intern(terminology.getTransaction()));
+        copy.setResource(intern(terminology.getResource()));
+        copy.setContextPlural(intern(terminology.getContextPlural()));
+        copy.setTransactionPlural(intern(terminology.getTransactionPlural()));
+        return copy;
+    }
+    
+    /**
+     * Custom settings keep their key order, since it shows in the serialized response
+     */
+    private static Map<String, Object> compactMap(Map<String, Object> map) {
+        if (map == null) {
+            return null;
+        }
+        Map<String, Object> copy = new LinkedHashMap<>((int) Math.ceil(map.size() / 0.75));
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            copy.put(intern(entry.getKey()), compactValue(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Object compactValue(Object value) {
+        if (value instanceof String) {
+            return intern((String) value);
+        }
+        if (value instanceof Map) {
+            return compactMap((Map<String, Object>) value);
+        }
+        if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            boolean strings = true;
+            for (Object element : list) {
+                strings &= element instanceof String;
+            }
+            if (strings) {
+                return internList((List<String>) value);
+            }
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(compactValue(element));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+    
+    private static String intern(String value) {
+        return value != null ? STRINGS.intern(value) : null;
+    }
+    
+    /**
+     * Intern a list of non-null strings as a whole; lists holding nulls are only copied
+     */
+    private static List<String> internList(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        List<String> copy = new ArrayList<>(values.size());
+        for (String value : values) {
+            if (value == null) {
+                return Collections.unmodifiableList(new ArrayList<>(values));
+            }
+            copy.add(intern(value));
+        }
+        return STRING_LISTS.intern(List.copyOf(copy));
+    }
+}
\ No newline at end of file
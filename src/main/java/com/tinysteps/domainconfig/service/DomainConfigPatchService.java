@@ -0,0 +1,290 @@
+package com.tinysteps.domainconfig.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.patch.JsonMergePatch;
+import com.tinysteps.domainconfig.patch.JsonPatch;
+import com.tinysteps.domainconfig.patch.JsonPatchException;
+import com.tinysteps.domainconfig.patch.PreconditionFailedException;
+import com.tinysteps.domainconfig.repository.DomainConfigRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Partial updates of a domain configuration.
+ * <p>
+ * The patch is applied to the JSON form of the current configuration and
+ * the result is validated as a whole, but only what actually changed is
+ * written: changed members of the jsonb columns are set or removed in place
+ * with {@code jsonb_set} and {@code #-}, untouched columns are left out of
+ * the {@code UPDATE}, and the loaded entity is detached before anything is
+ * written.
+ * <p>
+ * The row is locked before it is read, so the If-Match check, the patch and
+ * the update all see the same version. A revision is only allocated once the
+ * patch has been found applicable and valid: a rejected patch leaves no gap
+ * in the revision sequence.
+ */
+@Service
+@Lazy
+@Transactional
+public class DomainConfigPatchService {
+    
+    /**
+     * Patch formats, by request content type
+     */
+    public static final String MERGE_PATCH = "application/merge-patch+json";
+    public static final String JSON_PATCH = "application/json-patch+json";
+    
+    /**
+     * Properties that map to a jsonb column
+     */
+    private static final Map<String, String> JSONB_COLUMNS = Map.of(
+        "entities", "entities",
+        "workflows", "workflows",
+        "terminology", "terminology",
+        "customSettings", "custom_settings");
+    
+    /**
+     * Properties that map to a plain column
+     */
+    private static final Map<String, String> SCALAR_COLUMNS = Map.of(
+        "displayName", "display_name",
+        "description", "description");
+    
+    /**
+     * Beyond this many changed members a jsonb column is rewritten whole
+     */
+    private static final int MAX_IN_PLACE_CHANGES = 16;
+    
+    @Autowired
+    private DomainConfigResponseService domainConfigResponseService;
+    
+    @Autowired
+    private DomainConfigRepository domainConfigRepository;
+    
+    @Autowired
+    private DomainConfigValidator domainConfigValidator;
+    
+    @Autowired
+    private DomainConfigCacheInvalidator cacheInvalidator;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private ObjectWriter compactWriter;
+    
+    @PostConstruct
+    public void init() {
+        compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+    
+    /**
+     * Apply a merge patch or JSON Patch, returning the patched configuration,
+     * or empty if the domain does not exist. With {@code ifMatch} (strong
+     * entity tags, null for none) the patch only applies to a configuration
+     * that has one of them as its ETag.
+     */
+    public Optional<DomainConfig> patchDomainConfig(String domainName, String format, JsonNode patch,
+                                                    Collection<String> ifMatch) {
+        // The revision lock comes first, as for every writer, then the row
+        domainConfigRepository.lockWrites();
+        Optional<DomainConfig> existing = domainConfigRepository.findActiveForUpdate(domainName);
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        entityManager.detach(existing.get());
+        
+        DomainConfig current = DomainConfigInterner.compact(existing.get());
+        if (ifMatch != null && !domainConfigResponseService.hasEtag(current, ifMatch)) {
+            throw new PreconditionFailedException("Domain configuration '" + domainName + "' has changed");
+        }
+        
+        JsonNode before = objectMapper.valueToTree(current);
+        JsonNode patched = MERGE_PATCH.equals(format) ? JsonMergePatch.apply(before, patch) : JsonPatch.apply(before, patch);
+        
+        // Round-trip through the model so unknown members never reach the database
+        DomainConfig updated;
+        try {
+            updated = objectMapper.treeToValue(patched, DomainConfig.class);
+        } catch (JsonProcessingException e) {
+            throw new JsonPatchException("Patched document is not a valid configuration: " + e.getOriginalMessage());
+        }
+        JsonNode after = objectMapper.valueToTree(updated);
+        
+        List<String> assignments = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        Iterator<String> names = after.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (before.path(name).equals(after.get(name))) {
+                continue;
+            }
+            if (SCALAR_COLUMNS.containsKey(name)) {
+                assignments.add(SCALAR_COLUMNS.get(name) + " = ?");
+                args.add(after.get(name).isNull() ? null : after.get(name).asText());
+            } else if (JSONB_COLUMNS.containsKey(name)) {
+                assignments.add(JSONB_COLUMNS.get(name) + " = " + jsonbUpdate(JSONB_COLUMNS.get(name),
+                    before.path(name), after.get(name), args));
+            } else {
+                throw new JsonPatchException("'" + name + "' is read-only");
+            }
+        }
+        if (assignments.isEmpty()) {
+            return Optional.of(current);
+        }
+        
+        String violation = domainConfigValidator.validate(updated);
+        if (violation != null) {
+            throw new IllegalArgumentException(violation);
+        }
+        
+        // The row is locked at this version, so the update below cannot miss and the revision is never wasted
+        long version = current.getVersion() != null ? current.getVersion() : 0L;
+        long revision = domainConfigRepository.nextRevision();
+        LocalDateTime now = LocalDateTime.now();
+        args.add(revision);
+        args.add(Timestamp.valueOf(now));
+        args.add(domainName);
+        args.add(version);
+        int rows = jdbcTemplate.update("UPDATE domain_configs SET " + String.join(", ", assignments)
+            + ", revision = ?, updated_at = ?"
+            + " WHERE domain_name = ? AND is_active = true AND COALESCE(version, 0) = ?", args.toArray());
+        if (rows == 0) {
+            throw new OptimisticLockingFailureException(
+                "Domain '" + domainName + "' was modified concurrently, retry the patch");
+        }
+        
+        updated.setVersion(version + 1);
+        updated.setRevision(revision);
+        updated.setUpdatedAt(now);
+        cacheInvalidator.onSaved(updated);
+        return Optional.of(updated);
+    }
+    
+    /**
+     * SQL expression turning {@code before} into {@code after} for one jsonb
+     * column, setting and removing changed members in place when the column
+     * is an object on both sides
+     */
+    private String jsonbUpdate(String column, JsonNode before, JsonNode after, List<Object> args) {
+        List<JsonChange> changes = new ArrayList<>();
+        if (before.isObject() && after.isObject()) {
+            diff(before, after, new ArrayList<>(), changes);
+        }
+        if (changes.isEmpty() || changes.size() > MAX_IN_PLACE_CHANGES) {
+            args.add(after.isNull() ? null : toJson(after));
+            return "?::jsonb";
+        }
+        
+        String expression = column;
+        for (JsonChange change : changes) {
+            args.add(textArray(change.path));
+            if (change.value == null) {
+                expression = "(" + expression + " #- ?::text[])";
+            } else {
+                args.add(toJson(change.value));
+                expression = "jsonb_set(" + expression + ", ?::text[], ?::jsonb)";
+            }
+        }
+        return expression;
+    }
+    
+    /**
+     * Collect the members that differ between two objects, descending only
+     * into members that are objects on both sides so every parent exists
+     */
+    private static void diff(JsonNode before, JsonNode after, List<String> path, List<JsonChange> changes) {
+        Iterator<String> removed = before.fieldNames();
+        while (removed.hasNext()) {
+            String name = removed.next();
+            if (!after.has(name)) {
+                changes.add(new JsonChange(child(path, name), null));
+            }
+        }
+        Iterator<Map.Entry<String, JsonNode>> members = after.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            JsonNode old = before.get(member.getKey());
+            if (old != null && old.equals(member.getValue())) {
+                continue;
+            }
+            if (old != null && old.isObject() && member.getValue().isObject()) {
+                diff(old, member.getValue(), child(path, member.getKey()), changes);
+            } else {
+                changes.add(new JsonChange(child(path, member.getKey()), member.getValue()));
+            }
+        }
+    }
+    
+    private static List<String> child(List<String> path, String name) {
+        List<String> child = new ArrayList<>(path);
+        child.add(name);
+        return child;
+    }
+    
+    /**
+     * Postgres text[] literal with every element quoted
+     */
+    private static String textArray(List<String> elements) {
+        StringBuilder literal = new StringBuilder("{");
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append('"')
+                .append(elements.get(i).replace("\\", "\\\\").replace("\"", "\\\""))
+                .append('"');
+        }
+        return literal.append('}').toString();
+    }
+    
+    private String toJson(JsonNode value) {
+        try {
+            return compactWriter.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * A member to set, or to remove when the value is null
+     */
+    private static final class JsonChange {
+        
+        final List<String> path;
+        final JsonNode value;
+        
+        JsonChange(List<String> path, JsonNode value) {
+            this.path = path;
+            this.value = value;
+        }
+    }
+}
\ No newline at end of file
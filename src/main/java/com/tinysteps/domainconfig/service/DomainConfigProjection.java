@@ -0,0 +1,110 @@
+package com.tinysteps.domainconfig.service;
+
+import com.tinysteps.domainconfig.model.DomainConfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A sparse fieldset of {@link DomainConfig}, as requested with
+ * {@code fields=domainName,terminology}. Fields are kept in declaration
+ * order, so equivalent requests share one cache key.
+ */
+public final class DomainConfigProjection {
+    
+    /**
+     * Selectable fields by JSON name, which is also the entity attribute name
+     */
+    private static final Map<String, Function<DomainConfig, Object>> FIELDS = new LinkedHashMap<>();
+    
+    static {
+        FIELDS.put("id", DomainConfig::getId);
+        FIELDS.put("domainName", DomainConfig::getDomainName);
+        FIELDS.put("displayName", DomainConfig::getDisplayName);
+        FIELDS.put("description", DomainConfig::getDescription);
+        FIELDS.put("entities", DomainConfig::getEntities);
+        FIELDS.put("workflows", DomainConfig::getWorkflows);
+        FIELDS.put("terminology", DomainConfig::getTerminology);
+        FIELDS.put("customSettings", DomainConfig::getCustomSettings);
+        FIELDS.put("isActive", DomainConfig::getIsActive);
+        FIELDS.put("version", DomainConfig::getVersion);
+        FIELDS.put("revision", DomainConfig::getRevision);
+        FIELDS.put("createdAt", DomainConfig::getCreatedAt);
+        FIELDS.put("updatedAt", DomainConfig::getUpdatedAt);
+    }
+    
+    private final List<String> fields;
+    private final String key;
+    
+    private DomainConfigProjection(List<String> fields) {
+        this.fields = List.copyOf(fields);
+        this.key = String.join(",", fields);
+    }
+    
+    /**
+     * Parse a comma-separated list of field names
+     *
+     * @throws IllegalArgumentException for unknown or missing field names
+     */
+    public static DomainConfigProjection parse(String fields) {
+        List<String> requested = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty() && !FIELDS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected any of " + FIELDS.keySet());
+            }
+            requested.add(name);
+        }
+        
+        List<String> selected = new ArrayList<>();
+        for (String name : FIELDS.keySet()) {
+            if (requested.contains(name)) {
+                selected.add(name);
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+        return new DomainConfigProjection(selected);
+    }
+    
+    /**
+     * Selected field names, which double as entity attribute names
+     */
+    public List<String> getFields() { return fields; }
+    
+    /**
+     * Canonical form, used in cache keys
+     */
+    public String getKey() { return key; }
+    
+    /**
+     * Project an in-memory configuration
+     */
+    public Map<String, Object> apply(DomainConfig config) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (String field : fields) {
+            projected.put(field, FIELDS.get(field).apply(config));
+        }
+        return projected;
+    }
+    
+    /**
+     * Pair selected values, in field order, with their names
+     */
+    public Map<String, Object> toMap(Object[] values) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            projected.put(fields.get(i), values[i]);
+        }
+        return projected;
+    }
+    
+    @Override
+    public String toString() {
+        return key;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.tinysteps.domainconfig.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.model.SerializedConfig;
+import com.tinysteps.domainconfig.repository.DomainConfigRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Serialized sparse fieldsets of the list and lookup endpoints, cached per
+ * endpoint, argument and projection. The list selects only the requested
+ * columns from the database; lookups project the in-memory snapshot. No
+ * transaction is opened unless the database is queried.
+ */
+@Service
+public class DomainConfigProjectionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainConfigProjectionService.class);
+    
+    @Autowired
+    private DomainConfigRepository domainConfigRepository;
+    
+    @Autowired
+    private DomainConfigSnapshotService snapshotService;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private ObjectWriter compactWriter;
+    
+    @PostConstruct
+    public void init() {
+        compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+    
+    /**
+     * Get the projection of all active domain configurations (cached)
+     */
+    public SerializedConfig getAllActiveDomainConfigs(DomainConfigProjection projection) {
+        return cached("all", "", projection, snapshot -> {
+            List<Object[]> rows;
+            try {
+                rows = domainConfigRepository.findActiveAttributes(projection.getFields());
+            } catch (DataAccessException | TransactionException e) {
+                logger.warn("Database unavailable, projecting the snapshot: {}", e.getMessage());
+                return project(snapshot.getAll(), projection);
+            }
+            List<Map<String, Object>> projected = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                projected.add(projection.toMap(row));
+            }
+            return serialize(projected);
+        });
+    }
+    
+    /**
+     * Get the projection of the domains with the given context type (cached)
+     */
+    public SerializedConfig getDomainsByContextType(String contextType, DomainConfigProjection projection) {
+        return cached("context", contextType, projection,
+            snapshot -> project(snapshot.getByContextType(contextType), projection));
+    }
+    
+    /**
+     * Get the projection of the domains with the given transaction type (cached)
+     */
+    public SerializedConfig getDomainsByTransactionType(String transactionType, DomainConfigProjection projection) {
+        return cached("transaction", transactionType, projection,
+            snapshot -> project(snapshot.getByTransactionType(transactionType), projection));
+    }
+    
+    /**
+     * Keys include the snapshot version, so an entry computed while a write
+     * is being applied can never be served once the write is visible.
+     * Concurrent misses for one key share a single computation.
+     */
+    private SerializedConfig cached(String endpoint, String argument, DomainConfigProjection projection,
+                                    Function<DomainConfigSnapshot, SerializedConfig> loader) {
+        DomainConfigSnapshot snapshot = snapshotService.getSnapshot();
+        String key = endpoint + ":" + snapshot.getVersion() + ":" + projection.getKey() + ":" + argument;
+        return cacheManager.getCache("domainConfigProjections").get(key, () -> loader.apply(snapshot));
+    }
+    
+    private SerializedConfig project(Collection<DomainConfig> configs, DomainConfigProjection projection) {
+        List<Map<String, Object>> projected = new ArrayList<>(configs.size());
+        for (DomainConfig config : configs) {
+            projected.add(projection.apply(config));
+        }
+        return serialize(projected);
+    }
+    
+    private SerializedConfig serialize(Object value) {
+        try {
+            return new SerializedConfig(compactWriter.writeValueAsBytes(value), true);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
\ No newline at end of file
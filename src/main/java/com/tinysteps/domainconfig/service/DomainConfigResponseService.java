@@ -0,0 +1,275 @@
+package com.tinysteps.domainconfig.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.model.SerializedConfig;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+@Service
+@Timed(value = "domain.config.responses", description = "Serialized response lookups, cache hits included")
+public class DomainConfigResponseService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainConfigResponseService.class);
+    
+    @Autowired
+    private DomainConfigService domainConfigService;
+    
+    @Autowired
+    private DomainConfigCacheInvalidator cacheInvalidator;
+    
+    @Autowired
+    private DomainConfigSnapshotService snapshotService;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private ObjectWriter compactWriter;
+    
+    private ObjectWriter ndjsonWriter;
+    
+    private final Map<ResponseFormat, ObjectWriter> writers = new EnumMap<>(ResponseFormat.class);
+    
+    @PostConstruct
+    public void init() {
+        // Responses are machine-read, so skip the pretty printing of the primary mapper
+        compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        writers.put(ResponseFormat.JSON, compactWriter);
+        // Lines are ended explicitly; the default separator would start each line after the first with a space
+        ndjsonWriter = compactWriter.withRootValueSeparator("");
+        writers.put(ResponseFormat.CBOR, objectMapper.copyWith(new CBORFactory()).writer()
+            .without(SerializationFeature.INDENT_OUTPUT));
+        writers.put(ResponseFormat.SMILE, objectMapper.copyWith(new SmileFactory()).writer()
+            .without(SerializationFeature.INDENT_OUTPUT));
+    }
+    
+    /**
+     * Get the serialized JSON domain configuration and its ETag (cached)
+     */
+    public Optional<SerializedConfig> getSerializedDomainConfig(String domainName) {
+        return getSerializedDomainConfig(domainName, ResponseFormat.JSON);
+    }
+    
+    /**
+     * Get the domain configuration encoded in the given format and its ETag,
+     * cached per domain in the format's response cache. Loads for the same
+     * domain are coalesced, as with {@code @Cacheable(sync = true)}.
+     */
+    public Optional<SerializedConfig> getSerializedDomainConfig(String domainName, ResponseFormat format) {
+        Cache cache = cacheManager.getCache(format.getCacheName());
+        SerializedConfig serialized = cache.get(domainName, () -> findDomainConfig(domainName)
+            .map(config -> serialize(config, format))
+            .orElse(null));
+        return Optional.ofNullable(serialized);
+    }
+    
+    /**
+     * Whether one of the given strong entity tags is the ETag of the
+     * configuration in a representation served for it: JSON, CBOR or Smile,
+     * plain or gzip. Formats are encoded one at a time, JSON first, until one
+     * matches; nothing is compressed or cached.
+     */
+    public boolean hasEtag(DomainConfig config, Collection<String> etags) {
+        for (ResponseFormat format : ResponseFormat.values()) {
+            SerializedConfig serialized;
+            try {
+                serialized = new SerializedConfig(writers.get(format).writeValueAsBytes(config));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (etags.contains(serialized.getEtag()) || etags.contains(serialized.getGzipEtag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get all active domain configurations serialized in the given format (cached)
+     */
+    public SerializedConfig getSerializedActiveDomainConfigs(ResponseFormat format) {
+        return cachedList("all", "", format, DomainConfigSnapshot::getAll);
+    }
+    
+    /**
+     * Get the domain configurations with the given context type serialized in the given format (cached)
+     */
+    public SerializedConfig getSerializedDomainsByContextType(String contextType, ResponseFormat format) {
+        return cachedList("context", contextType, format, snapshot -> snapshot.getByContextType(contextType));
+    }
+    
+    /**
+     * Get the domain configurations that require payment serialized in the given format (cached)
+     */
+    public SerializedConfig getSerializedPaymentRequiredDomains(ResponseFormat format) {
+        return cachedList("payment", "", format, DomainConfigSnapshot::getPaymentRequired);
+    }
+    
+    /**
+     * Get the domain configurations with the given transaction type serialized in the given format (cached)
+     */
+    public SerializedConfig getSerializedDomainsByTransactionType(String transactionType, ResponseFormat format) {
+        return cachedList("transaction", transactionType, format, snapshot -> snapshot.getByTransactionType(transactionType));
+    }
+    
+    /**
+     * Get one response body holding the configurations of several domains,
+     * {@code {"configs": {name: config, ...}, "missing": [name, ...]}}. Cached
+     * per-domain bodies are spliced in as they are; the misses share one
+     * database query and are cached for single lookups too.
+     */
+    public SerializedConfig getSerializedDomainConfigs(Collection<String> domainNames) {
+        long generation = cacheInvalidator.getGeneration();
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache("domainConfigResponses");
+        Map<Object, Object> cached = cache.getNativeCache().getAllPresent(domainNames);
+        
+        Map<String, Object> loaded = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String domainName : domainNames) {
+            if (!cached.containsKey(domainName)) {
+                misses.add(domainName);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<String, DomainConfig> configs = findDomainConfigs(misses);
+            for (String domainName : misses) {
+                DomainConfig config = configs.get(domainName);
+                loaded.put(domainName, config != null ? serialize(config) : NullValue.INSTANCE);
+            }
+            cacheInvalidator.cacheIfCurrent("domainConfigResponses", loaded, generation);
+        }
+        
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            List<String> missing = new ArrayList<>();
+            body.write("{\"configs\":{".getBytes(StandardCharsets.UTF_8));
+            boolean first = true;
+            for (String domainName : domainNames) {
+                Object value = cached.containsKey(domainName) ? cached.get(domainName) : loaded.get(domainName);
+                if (!(value instanceof SerializedConfig)) {
+                    missing.add(domainName);
+                    continue;
+                }
+                if (!first) {
+                    body.write(',');
+                }
+                first = false;
+                body.write(compactWriter.writeValueAsBytes(domainName));
+                body.write(':');
+                body.write(((SerializedConfig) value).getBody());
+            }
+            body.write("},\"missing\":".getBytes(StandardCharsets.UTF_8));
+            body.write(compactWriter.writeValueAsBytes(missing));
+            body.write('}');
+            return new SerializedConfig(body.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Write every active domain configuration as newline-delimited JSON,
+     * each one as soon as it is read from the database
+     */
+    public void writeActiveDomainConfigs(OutputStream out) throws IOException {
+        try (JsonGenerator generator = ndjsonWriter.createGenerator(out)) {
+            domainConfigService.forEachActiveDomainConfig(config -> {
+                try {
+                    ndjsonWriter.writeValue(generator, config);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Look a domain up through the service, falling back to the last known
+     * good snapshot while the database is unreachable
+     */
+    private Optional<DomainConfig> findDomainConfig(String domainName) {
+        try {
+            return domainConfigService.getDomainConfig(domainName);
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Database unavailable, serving domain '{}' from the snapshot: {}", domainName, e.getMessage());
+            return Optional.ofNullable(snapshotService.getSnapshot().getDomainConfig(domainName));
+        }
+    }
+    
+    private Map<String, DomainConfig> findDomainConfigs(List<String> domainNames) {
+        try {
+            return domainConfigService.getDomainConfigs(domainNames);
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Database unavailable, serving {} domains from the snapshot: {}", domainNames.size(), e.getMessage());
+            DomainConfigSnapshot snapshot = snapshotService.getSnapshot();
+            Map<String, DomainConfig> configs = new HashMap<>();
+            for (String domainName : domainNames) {
+                DomainConfig config = snapshot.getDomainConfig(domainName);
+                if (config != null) {
+                    configs.put(domainName, config);
+                }
+            }
+            return configs;
+        }
+    }
+    
+    /**
+     * Lists are read from the in-memory snapshot and keyed by its version, so
+     * an entry serialized while a write is being applied is never served once
+     * the write is visible
+     */
+    private SerializedConfig cachedList(String endpoint, String argument, ResponseFormat format,
+                                        Function<DomainConfigSnapshot, Collection<DomainConfig>> query) {
+        DomainConfigSnapshot snapshot = snapshotService.getSnapshot();
+        String key = endpoint + ":" + snapshot.getVersion() + ":" + format + ":" + argument;
+        return cacheManager.getCache("domainConfigListResponses").get(key, () -> serialize(query.apply(snapshot), format));
+    }
+    
+    private SerializedConfig serialize(Object value) {
+        return serialize(value, ResponseFormat.JSON);
+    }
+    
+    private SerializedConfig serialize(Object value, ResponseFormat format) {
+        try {
+            return new SerializedConfig(writers.get(format).writeValueAsBytes(value), true);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
\ No newline at end of file
@@ -1,137 +1,266 @@
 package com.tinysteps.domainconfig.service;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.model.DomainConfigPage;
+import com.tinysteps.domainconfig.model.RolePermissions;
+import com.tinysteps.domainconfig.model.WorkflowStateMachine;
 import com.tinysteps.domainconfig.repository.DomainConfigRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+/**
+ * Writes run in read-write transactions; every read method is either
+ * {@code readOnly}, which lets Hibernate skip snapshotting and dirty checking
+ * of the jsonb columns, or {@code SUPPORTS} when it is served from memory.
+ */
 @Service
+@Timed(value = "domain.config.service", description = "Service calls that miss the caches in front of them")
 @Transactional
 public class DomainConfigService {
     
     @Autowired
     private DomainConfigRepository domainConfigRepository;
     
+    @Autowired
+    private DomainConfigSnapshotService snapshotService;
+    
+    @Autowired
+    private DomainConfigCacheInvalidator cacheInvalidator;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private DomainConfigValidator domainConfigValidator;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     /**
-     * Get domain configuration by domain name (cached)
+     * Get domain configuration by domain name (cached, concurrent misses share one query).
+     * Cached configurations are compact, read-only copies, see {@link DomainConfigInterner}.
      */
-    @Cacheable(value = "domainConfigs", key = "#domainName")
+    @Cacheable(value = "domainConfigs", key = "#domainName", sync = true)
+    @Transactional(readOnly = true)
     public Optional<DomainConfig> getDomainConfig(String domainName) {
-        return domainConfigRepository.findByDomainNameAndIsActiveTrue(domainName);
+        return domainConfigRepository.findByDomainNameAndIsActiveTrue(domainName).map(DomainConfigInterner::compact);
     }
     
     /**
-     * Get all active domain configurations (cached)
+     * Get several domain configurations at once, keyed by domain name in the
+     * requested order; unknown domains are left out. Cached entries are read
+     * from memory and all misses are loaded with one query and cached together.
      */
-    @Cacheable(value = "allDomainConfigs")
-    public List<DomainConfig> getAllActiveDomainConfigs() {
-        return domainConfigRepository.findByIsActiveTrueOrderByDomainName();
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<String, DomainConfig> getDomainConfigs(Collection<String> domainNames) {
+        long generation = cacheInvalidator.getGeneration();
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache("domainConfigs");
+        // getAllPresent never triggers the cache loader
+        Map<Object, Object> cached = cache.getNativeCache().getAllPresent(domainNames);
+        
+        Map<String, Object> loaded = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String domainName : domainNames) {
+            if (!cached.containsKey(domainName)) {
+                misses.add(domainName);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (DomainConfig config : domainConfigRepository.findByDomainNameInAndIsActiveTrue(misses)) {
+                loaded.put(config.getDomainName(), DomainConfigInterner.compact(config));
+            }
+            for (String domainName : misses) {
+                loaded.putIfAbsent(domainName, NullValue.INSTANCE);
+            }
+            cacheInvalidator.cacheIfCurrent("domainConfigs", loaded, generation);
+        }
+        
+        Map<String, DomainConfig> configs = new LinkedHashMap<>();
+        for (String domainName : domainNames) {
+            Object value = cached.containsKey(domainName) ? cached.get(domainName) : loaded.get(domainName);
+            if (value instanceof DomainConfig) {
+                configs.put(domainName, (DomainConfig) value);
+            }
+        }
+        return configs;
+    }
+    
+    /**
+     * Get one page of active domain configurations in domain name order,
+     * starting after the given domain name
+     */
+    @Transactional(readOnly = true)
+    public DomainConfigPage getDomainConfigPage(String after, int limit) {
+        // One extra row tells whether another page follows
+        List<DomainConfig> rows = domainConfigRepository.findByIsActiveTrueAndDomainNameGreaterThanOrderByDomainName(
+            after != null ? after : "", Limit.of(limit + 1));
+        if (rows.size() <= limit) {
+            return new DomainConfigPage(rows, null);
+        }
+        List<DomainConfig> items = rows.subList(0, limit);
+        return new DomainConfigPage(items, items.get(limit - 1).getDomainName());
     }
     
     /**
-     * Create or update domain configuration
+     * Pass every active domain configuration to the action in domain name
+     * order while cursoring through the result set. Each one is detached once
+     * handled, so memory use does not grow with the number of domains.
+     */
+    @Transactional(readOnly = true)
+    public void forEachActiveDomainConfig(Consumer<DomainConfig> action) {
+        try (Stream<DomainConfig> configs = domainConfigRepository.streamActiveOrderByDomainName()) {
+            configs.forEach(config -> {
+                action.accept(config);
+                entityManager.detach(config);
+            });
+        }
+    }
+    
+    /**
+     * Create or update domain configuration, evicting only the entries that depend on it
      */
-    @CacheEvict(value = {"domainConfigs", "allDomainConfigs"}, allEntries = true)
     public DomainConfig saveDomainConfig(DomainConfig domainConfig) {
-        return domainConfigRepository.save(domainConfig);
+        domainConfig.setRevision(domainConfigRepository.nextRevision());
+        // Flushed now so the version the database assigns is known to the change event
+        DomainConfig savedConfig = domainConfigRepository.saveAndFlush(domainConfig);
+        cacheInvalidator.onSaved(savedConfig);
+        return savedConfig;
     }
     
     /**
-     * Delete domain configuration (soft delete)
+     * Delete domain configuration (soft delete), evicting only the entries that depend on it
      */
-    @CacheEvict(value = {"domainConfigs", "allDomainConfigs"}, allEntries = true)
     public void deleteDomainConfig(String domainName) {
         Optional<DomainConfig> config = domainConfigRepository.findByDomainNameAndIsActiveTrue(domainName);
         if (config.isPresent()) {
             DomainConfig domainConfig = config.get();
             domainConfig.setIsActive(false);
-            domainConfigRepository.save(domainConfig);
+            domainConfig.setRevision(domainConfigRepository.nextRevision());
+            domainConfigRepository.saveAndFlush(domainConfig);
+            cacheInvalidator.onDeleted(domainConfig);
         }
     }
     
     /**
      * Check if domain exists
      */
+    @Transactional(readOnly = true)
     public boolean domainExists(String domainName) {
         return domainConfigRepository.existsByDomainName(domainName);
     }
     
     /**
-     * Get domain configurations by context type
+     * Get domain configurations by context type (in-memory index)
      */
-    @Cacheable(value = "domainsByContext", key = "#contextType")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<DomainConfig> getDomainsByContextType(String contextType) {
-        return domainConfigRepository.findByContextType(contextType);
+        return snapshotService.getSnapshot().getByContextType(contextType);
     }
     
     /**
-     * Get domains that require payment
+     * Get domains that require payment (in-memory index)
      */
-    @Cacheable(value = "paymentRequiredDomains")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<DomainConfig> getPaymentRequiredDomains() {
-        return domainConfigRepository.findPaymentRequiredDomains();
+        return snapshotService.getSnapshot().getPaymentRequired();
     }
     
     /**
-     * Get domain configurations by transaction type
+     * Get domain configurations by transaction type (in-memory index)
      */
-    @Cacheable(value = "domainsByTransaction", key = "#transactionType")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<DomainConfig> getDomainsByTransactionType(String transactionType) {
-        return domainConfigRepository.findByTransactionType(transactionType);
+        return snapshotService.getSnapshot().getByTransactionType(transactionType);
     }
     
     /**
-     * Validate domain configuration
+     * Get the compiled transaction workflow of a domain (in-memory index)
      */
-    public boolean validateDomainConfig(DomainConfig domainConfig) {
-        // Basic validation logic
-        if (domainConfig.getDomainName() == null || domainConfig.getDomainName().trim().isEmpty()) {
-            return false;
-        }
-        
-        if (domainConfig.getEntities() == null || 
-            domainConfig.getWorkflows() == null || 
-            domainConfig.getTerminology() == null) {
-            return false;
-        }
-        
-        // Validate required fields in entities
-        DomainConfig.DomainEntities entities = domainConfig.getEntities();
-        if (entities.getUserRoles() == null || entities.getUserRoles().isEmpty() ||
-            entities.getContextType() == null || entities.getContextType().trim().isEmpty() ||
-            entities.getTransactionType() == null || entities.getTransactionType().trim().isEmpty()) {
-            return false;
-        }
-        
-        // Validate required fields in workflows
-        DomainConfig.DomainWorkflows workflows = domainConfig.getWorkflows();
-        if (workflows.getTransactionStates() == null || workflows.getTransactionStates().isEmpty()) {
-            return false;
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<WorkflowStateMachine> getStateMachine(String domainName) {
+        DomainConfig config = snapshotService.getSnapshot().getDomainConfig(domainName);
+        if (config == null || config.getWorkflows() == null) {
+            return Optional.empty();
         }
-        
-        // Validate required fields in terminology
-        DomainConfig.DomainTerminology terminology = domainConfig.getTerminology();
-        if (terminology.getUserPrimary() == null || terminology.getUserPrimary().trim().isEmpty() ||
-            terminology.getContext() == null || terminology.getContext().trim().isEmpty() ||
-            terminology.getTransaction() == null || terminology.getTransaction().trim().isEmpty()) {
-            return false;
+        return Optional.of(config.getWorkflows().getStateMachine());
+    }
+    
+    /**
+     * Get the compiled user roles of a domain (in-memory index)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<RolePermissions> getRolePermissions(String domainName) {
+        DomainConfig config = snapshotService.getSnapshot().getDomainConfig(domainName);
+        if (config == null || config.getEntities() == null) {
+            return Optional.empty();
         }
-        
-        return true;
+        return Optional.of(config.getEntities().getRolePermissions());
+    }
+    
+    /**
+     * Validate domain configuration
+     */
+    public boolean validateDomainConfig(DomainConfig domainConfig) {
+        return domainConfigValidator.findMissingField(domainConfig) == null;
     }
     
     /**
-     * Clear all caches
+     * Clear all caches and reload the in-memory index snapshot
      */
-    @CacheEvict(value = {"domainConfigs", "allDomainConfigs", "domainsByContext", 
-                        "paymentRequiredDomains", "domainsByTransaction"}, allEntries = true)
+    @CacheEvict(value = {"domainConfigs", "domainConfigResponses", "domainConfigCborResponses",
+        "domainConfigSmileResponses", "domainConfigListResponses", "domainConfigProjections"},
+                allEntries = true)
     public void clearAllCaches() {
-        // Cache cleared
+        snapshotService.reload();
+    }
+    
+    /**
+     * Get hit/miss/eviction counts and estimated bytes held per cache
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<String, Map<String, Object>> getCacheStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof CaffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+                CacheStats stats = nativeCache.stats();
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("size", nativeCache.estimatedSize());
+                values.put("hitCount", stats.hitCount());
+                values.put("missCount", stats.missCount());
+                values.put("evictionCount", stats.evictionCount());
+                values.put("hitRate", stats.hitRate());
+                nativeCache.policy().eviction().ifPresent(eviction -> {
+                    values.put("weightedSize", eviction.weightedSize().orElse(0));
+                    values.put("maximumWeight", eviction.getMaximum());
+                });
+                statistics.put(cacheName, values);
+            }
+        }
+        return statistics;
     }
 }
\ No newline at end of file
@@ -0,0 +1,354 @@
+package com.tinysteps.domainconfig.service;
+
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.model.DomainConfigChange;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Immutable view of all active domain configurations with prebuilt
+ * secondary indexes, plus the revisions at which domains were deleted so
+ * the change feed can be served from memory. A write never mutates a
+ * snapshot, it produces a new one. Configurations are held in the compact
+ * form built by {@link DomainConfigInterner}.
+ * <p>
+ * Writers commit in revision order, but their changes can reach a snapshot
+ * out of order. The snapshot's revision is therefore the highest revision up
+ * to which every change has been applied; changes above a gap are visible to
+ * lookups but kept out of the change feed until the gap is filled.
+ */
+public final class DomainConfigSnapshot {
+    
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    
+    private final Map<String, DomainConfig> byDomainName;
+    private final Map<String, List<DomainConfig>> byContextType;
+    private final Map<String, List<DomainConfig>> byTransactionType;
+    private final List<DomainConfig> paymentRequired;
+    private final Map<String, Long> deletedRevisions;
+    private final long revision;
+    
+    /**
+     * Revisions applied above {@link #revision}, each one past a gap
+     */
+    private final SortedSet<Long> appliedRevisions;
+    
+    private final long version = VERSIONS.incrementAndGet();
+    
+    private DomainConfigSnapshot(Map<String, DomainConfig> byDomainName,
+                                 Map<String, List<DomainConfig>> byContextType,
+                                 Map<String, List<DomainConfig>> byTransactionType,
+                                 List<DomainConfig> paymentRequired,
+                                 Map<String, Long> deletedRevisions,
+                                 long revision,
+                                 SortedSet<Long> appliedRevisions) {
+        this.byDomainName = byDomainName;
+        this.byContextType = byContextType;
+        this.byTransactionType = byTransactionType;
+        this.paymentRequired = paymentRequired;
+        this.deletedRevisions = deletedRevisions;
+        this.revision = revision;
+        this.appliedRevisions = appliedRevisions;
+    }
+    
+    /**
+     * Build a snapshot from a consistent read of the active configurations and
+     * the revisions at which inactive domains were deleted
+     */
+    public static DomainConfigSnapshot of(Collection<DomainConfig> configs, Map<String, Long> deletedRevisions) {
+        return of(configs, deletedRevisions, null);
+    }
+    
+    /**
+     * Build a snapshot whose changes are complete up to the given revision;
+     * a null revision takes the highest one found
+     */
+    public static DomainConfigSnapshot of(Collection<DomainConfig> configs, Map<String, Long> deletedRevisions, Long completeRevision) {
+        TreeMap<String, DomainConfig> byDomainName = new TreeMap<>();
+        for (DomainConfig config : configs) {
+            byDomainName.put(config.getDomainName(), DomainConfigInterner.compact(config));
+        }
+        
+        Map<String, List<DomainConfig>> contextIndex = new HashMap<>();
+        Map<String, List<DomainConfig>> transactionIndex = new HashMap<>();
+        List<DomainConfig> paymentIndex = new ArrayList<>();
+        long revision = 0L;
+        
+        // Iterating the sorted map keeps every index ordered by domain name
+        for (DomainConfig config : byDomainName.values()) {
+            revision = Math.max(revision, revisionOf(config));
+            addToIndex(contextIndex, contextType(config), config);
+            addToIndex(transactionIndex, transactionType(config), config);
+            if (isPaymentRequired(config)) {
+                paymentIndex.add(config);
+            }
+        }
+        
+        for (long deletedRevision : deletedRevisions.values()) {
+            revision = Math.max(revision, deletedRevision);
+        }
+        
+        TreeSet<Long> applied = new TreeSet<>();
+        if (completeRevision != null && completeRevision < revision) {
+            for (DomainConfig config : byDomainName.values()) {
+                if (revisionOf(config) > completeRevision) {
+                    applied.add(revisionOf(config));
+                }
+            }
+            for (long deletedRevision : deletedRevisions.values()) {
+                if (deletedRevision > completeRevision) {
+                    applied.add(deletedRevision);
+                }
+            }
+            revision = completeRevision;
+        }
+        
+        return new DomainConfigSnapshot(
+            Collections.unmodifiableMap(byDomainName),
+            freeze(contextIndex),
+            freeze(transactionIndex),
+            List.copyOf(paymentIndex),
+            Map.copyOf(deletedRevisions),
+            revision,
+            Collections.unmodifiableSortedSet(applied));
+    }
+    
+    /**
+     * Return a new snapshot reflecting a change to a single domain at the
+     * given revision. A null {@code changed} removes the domain. A change
+     * older than what is already known for the domain only records its
+     * revision. Only the index entries the old or new version is listed under
+     * are rebuilt; all others are shared.
+     */
+    public DomainConfigSnapshot withChange(String domainName, DomainConfig changed, long changeRevision) {
+        DomainConfig previous = byDomainName.get(domainName);
+        long knownRevision = previous != null ? revisionOf(previous) : deletedRevisions.getOrDefault(domainName, -1L);
+        long changedRevision = changed != null ? revisionOf(changed) : changeRevision;
+        if (changedRevision < knownRevision || (previous == null && changed == null && knownRevision >= 0)) {
+            return withRevision(changeRevision);
+        }
+        
+        DomainConfig current = DomainConfigInterner.compact(changed);
+        TreeMap<String, DomainConfig> copy = new TreeMap<>(byDomainName);
+        if (current == null) {
+            copy.remove(domainName);
+        } else {
+            copy.put(domainName, current);
+        }
+        
+        boolean previousPays = previous != null && isPaymentRequired(previous);
+        boolean currentPays = current != null && isPaymentRequired(current);
+        List<DomainConfig> payment = previousPays || currentPays
+            ? rebuildEntry(paymentRequired, domainName, currentPays ? current : null)
+            : paymentRequired;
+        
+        Map<String, Long> deleted = deletedRevisions;
+        if (current == null || deletedRevisions.containsKey(domainName)) {
+            Map<String, Long> deletedCopy = new HashMap<>(deletedRevisions);
+            if (current == null) {
+                deletedCopy.put(domainName, changeRevision);
+            } else {
+                deletedCopy.remove(domainName);
+            }
+            deleted = Collections.unmodifiableMap(deletedCopy);
+        }
+        
+        return new DomainConfigSnapshot(
+            Collections.unmodifiableMap(copy),
+            reindex(byContextType, DomainConfigSnapshot::contextType, domainName, previous, current),
+            reindex(byTransactionType, DomainConfigSnapshot::transactionType, domainName, previous, current),
+            payment,
+            deleted,
+            revision,
+            appliedRevisions).withRevision(changeRevision);
+    }
+    
+    /**
+     * Return a snapshot that records the given revision as applied, advancing
+     * {@link #getRevision()} over every revision now without a gap below it
+     */
+    public DomainConfigSnapshot withRevision(long appliedRevision) {
+        if (appliedRevision <= revision || appliedRevisions.contains(appliedRevision)) {
+            return this;
+        }
+        TreeSet<Long> applied = new TreeSet<>(appliedRevisions);
+        applied.add(appliedRevision);
+        long complete = revision;
+        while (!applied.isEmpty() && applied.first() == complete + 1) {
+            complete = applied.pollFirst();
+        }
+        return new DomainConfigSnapshot(byDomainName, byContextType, byTransactionType, paymentRequired,
+            deletedRevisions, complete, Collections.unmodifiableSortedSet(applied));
+    }
+    
+    /**
+     * Latest state of every domain changed after the given revision, up to
+     * {@link #getRevision()}, in revision order. A null {@code since} returns
+     * all active domains.
+     */
+    public List<DomainConfigChange> getChangesSince(Long since) {
+        List<DomainConfigChange> changes = new ArrayList<>();
+        for (DomainConfig config : byDomainName.values()) {
+            long configRevision = revisionOf(config);
+            if (since == null || (configRevision > since && configRevision <= revision)) {
+                changes.add(new DomainConfigChange(config.getDomainName(), configRevision, config));
+            }
+        }
+        if (since != null) {
+            deletedRevisions.forEach((domainName, deletedRevision) -> {
+                if (deletedRevision > since && deletedRevision <= revision) {
+                    changes.add(new DomainConfigChange(domainName, deletedRevision, null));
+                }
+            });
+        }
+        changes.sort(Comparator.comparingLong(DomainConfigChange::getRevision));
+        return changes;
+    }
+    
+    /**
+     * Highest revision up to which every change is reflected in this snapshot
+     */
+    public long getRevision() {
+        return revision;
+    }
+    
+    /**
+     * Whether changes above {@link #getRevision()} wait for a missing revision
+     */
+    public boolean hasGap() {
+        return !appliedRevisions.isEmpty();
+    }
+    
+    /**
+     * Highest revision applied to this snapshot, past any gap
+     */
+    public long getLatestRevision() {
+        return appliedRevisions.isEmpty() ? revision : appliedRevisions.last();
+    }
+    
+    /**
+     * Distinct for every snapshot instance; derived caches are keyed by it
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Every active domain, ordered by domain name
+     */
+    public Collection<DomainConfig> getAll() {
+        return byDomainName.values();
+    }
+    
+    /**
+     * Revision at which each inactive domain was deleted
+     */
+    public Map<String, Long> getDeletedRevisions() {
+        return deletedRevisions;
+    }
+    
+    public List<DomainConfig> getByContextType(String contextType) {
+        return byContextType.getOrDefault(contextType, List.of());
+    }
+    
+    public List<DomainConfig> getByTransactionType(String transactionType) {
+        return byTransactionType.getOrDefault(transactionType, List.of());
+    }
+    
+    public List<DomainConfig> getPaymentRequired() {
+        return paymentRequired;
+    }
+    
+    public DomainConfig getDomainConfig(String domainName) {
+        return byDomainName.get(domainName);
+    }
+    
+    public int size() {
+        return byDomainName.size();
+    }
+    
+    private static long revisionOf(DomainConfig config) {
+        return config.getRevision() != null ? config.getRevision() : 0L;
+    }
+    
+    private static String contextType(DomainConfig config) {
+        return config.getEntities() != null ? config.getEntities().getContextType() : null;
+    }
+    
+    private static String transactionType(DomainConfig config) {
+        return config.getEntities() != null ? config.getEntities().getTransactionType() : null;
+    }
+    
+    private static boolean isPaymentRequired(DomainConfig config) {
+        return config.getWorkflows() != null && Boolean.TRUE.equals(config.getWorkflows().getPaymentRequired());
+    }
+    
+    private static Map<String, List<DomainConfig>> reindex(Map<String, List<DomainConfig>> index,
+                                                           Function<DomainConfig, String> keyOf,
+                                                           String domainName,
+                                                           DomainConfig previous,
+                                                           DomainConfig current) {
+        String previousKey = previous != null ? keyOf.apply(previous) : null;
+        String currentKey = current != null ? keyOf.apply(current) : null;
+        if (previousKey == null && currentKey == null) {
+            return index;
+        }
+        
+        Map<String, List<DomainConfig>> copy = new HashMap<>(index);
+        if (previousKey != null && !previousKey.equals(currentKey)) {
+            List<DomainConfig> remaining = rebuildEntry(index.getOrDefault(previousKey, List.of()), domainName, null);
+            if (remaining.isEmpty()) {
+                copy.remove(previousKey);
+            } else {
+                copy.put(previousKey, remaining);
+            }
+        }
+        if (currentKey != null) {
+            copy.put(currentKey, rebuildEntry(index.getOrDefault(currentKey, List.of()), domainName, current));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+    
+    // Replace, add or (with a null replacement) drop one domain in a list sorted by domain name
+    private static List<DomainConfig> rebuildEntry(List<DomainConfig> configs, String domainName, DomainConfig replacement) {
+        List<DomainConfig> rebuilt = new ArrayList<>(configs.size() + 1);
+        boolean placed = replacement == null;
+        for (DomainConfig config : configs) {
+            int order = config.getDomainName().compareTo(domainName);
+            if (!placed && order > 0) {
+                rebuilt.add(replacement);
+                placed = true;
+            }
+            if (order != 0) {
+                rebuilt.add(config);
+            }
+        }
+        if (!placed) {
+            rebuilt.add(replacement);
+        }
+        return List.copyOf(rebuilt);
+    }
+    
+    private static void addToIndex(Map<String, List<DomainConfig>> index, String key, DomainConfig config) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(config);
+        }
+    }
+    
+    private static Map<String, List<DomainConfig>> freeze(Map<String, List<DomainConfig>> index) {
+        Map<String, List<DomainConfig>> frozen = new HashMap<>(index.size() * 2);
+        index.forEach((key, configs) -> frozen.put(key, List.copyOf(configs)));
+        return Collections.unmodifiableMap(frozen);
+    }
+}
\ No newline at end of file
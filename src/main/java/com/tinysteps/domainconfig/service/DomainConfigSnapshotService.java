@@ -0,0 +1,167 @@
+package com.tinysteps.domainconfig.service;
+
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.repository.DomainConfigRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the current {@link DomainConfigSnapshot}. The snapshot is loaded
+ * once from the database and afterwards swapped atomically on every
+ * committed write, so lookups never go back to the database. Every swap is
+ * announced with a {@link SnapshotUpdatedEvent}. At startup the last known
+ * good copy is restored from the {@link DomainConfigSnapshotStore} if there
+ * is one, until the {@link DomainConfigSnapshotVerifier} replaces it with a
+ * database load.
+ *
+ * @see DomainConfigCacheInvalidator
+ */
+@Service
+public class DomainConfigSnapshotService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainConfigSnapshotService.class);
+    
+    @Autowired
+    private DomainConfigRepository domainConfigRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private DomainConfigSnapshotStore snapshotStore;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private volatile DomainConfigSnapshot snapshot;
+    
+    /**
+     * True while the snapshot is the copy restored from disk
+     */
+    private volatile boolean restored;
+    
+    /**
+     * When the snapshot was last known to match the database, epoch millis; 0 before the first load
+     */
+    private volatile long verifiedAt;
+    
+    /**
+     * Start from the stored last known good snapshot, if any, so reads can be
+     * served before the database has been queried
+     */
+    @PostConstruct
+    public void restore() {
+        DomainConfigSnapshotStore.StoredSnapshot stored = snapshotStore.read();
+        if (stored == null) {
+            return;
+        }
+        DomainConfigSnapshot restoredSnapshot = DomainConfigSnapshot.of(
+            stored.getConfigs(), stored.getDeletedRevisions(), stored.getRevision());
+        synchronized (this) {
+            snapshot = restoredSnapshot;
+            restored = true;
+            verifiedAt = stored.getWrittenAt();
+        }
+        logger.info("Restored domain configuration snapshot with {} active domains at revision {} from disk",
+            restoredSnapshot.size(), restoredSnapshot.getRevision());
+    }
+    
+    /**
+     * Get the current snapshot, loading it on first use
+     */
+    public DomainConfigSnapshot getSnapshot() {
+        DomainConfigSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Whether the snapshot is still the copy restored from disk
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+    
+    public long getVerifiedAt() {
+        return verifiedAt;
+    }
+    
+    /**
+     * Record that the snapshot was just found to match the database
+     */
+    public void markVerified() {
+        verifiedAt = System.currentTimeMillis();
+    }
+    
+    /**
+     * Reload the snapshot from the database
+     */
+    public synchronized void reload() {
+        load();
+    }
+    
+    /**
+     * Apply a committed change to a single domain; a null config removes it.
+     * Shares the lock with the initial load so a concurrent write is not lost.
+     */
+    public synchronized void apply(String domainName, DomainConfig current, long revision) {
+        if (snapshot != null) {
+            update(snapshot.withChange(domainName, current, revision));
+        }
+    }
+    
+    /**
+     * Record a committed revision whose change is already reflected, so the
+     * snapshot revision can advance past it
+     */
+    public synchronized void acknowledge(long revision) {
+        if (snapshot != null) {
+            update(snapshot.withRevision(revision));
+        }
+    }
+    
+    private void update(DomainConfigSnapshot updated) {
+        if (updated != snapshot) {
+            snapshot = updated;
+            eventPublisher.publishEvent(new SnapshotUpdatedEvent(this, updated));
+        }
+    }
+    
+    private DomainConfigSnapshot load() {
+        // Writers commit in revision order, so one consistent read holds every change up to the highest revision it sees
+        TransactionTemplate consistentRead = new TransactionTemplate(transactionManager);
+        consistentRead.setReadOnly(true);
+        consistentRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        DomainConfigSnapshot loaded = consistentRead.execute(status -> {
+            Map<String, Long> deletedRevisions = new HashMap<>();
+            for (Object[] row : domainConfigRepository.findDeletedRevisions()) {
+                deletedRevisions.put((String) row[0], row[1] != null ? (Long) row[1] : 0L);
+            }
+            return DomainConfigSnapshot.of(domainConfigRepository.findByIsActiveTrueOrderByDomainName(), deletedRevisions);
+        });
+        snapshot = loaded;
+        restored = false;
+        verifiedAt = System.currentTimeMillis();
+        logger.info("Loaded domain configuration snapshot with {} active domains at revision {}",
+            loaded.size(), loaded.getRevision());
+        eventPublisher.publishEvent(new SnapshotUpdatedEvent(this, loaded));
+        return loaded;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.tinysteps.domainconfig.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the last known good {@link DomainConfigSnapshot} in a local file, so
+ * a restarted instance can serve reads before the database answers. The file
+ * is Smile-encoded and rewritten after every change; a burst of changes is
+ * coalesced into one write. Each write replaces the file atomically, and the
+ * file is memory-mapped when read back.
+ */
+@Component
+public class DomainConfigSnapshotStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainConfigSnapshotStore.class);
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${domain.config.snapshot.file:}")
+    private String file;
+    
+    private ObjectMapper smileMapper;
+    
+    /**
+     * Latest snapshot not yet written; a write is queued whenever this goes from null to a value
+     */
+    private final AtomicReference<DomainConfigSnapshot> pending = new AtomicReference<>();
+    
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @PostConstruct
+    public void init() {
+        smileMapper = objectMapper.copyWith(new SmileFactory()).disable(SerializationFeature.INDENT_OUTPUT);
+    }
+    
+    /**
+     * Finish the last queued write on shutdown, so a restart finds the latest state
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    public boolean isEnabled() {
+        return !file.isBlank();
+    }
+    
+    /**
+     * Read the stored snapshot, or null if there is none or it cannot be read
+     */
+    public StoredSnapshot read() {
+        if (!isEnabled()) {
+            return null;
+        }
+        Path path = Paths.get(file);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return smileMapper.readValue(new ByteBufferBackedInputStream(buffer), StoredSnapshot.class);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable snapshot file {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+    
+    @EventListener
+    public void onSnapshotUpdated(SnapshotUpdatedEvent event) {
+        if (isEnabled() && pending.getAndSet(event.getSnapshot()) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+    
+    private void writePending() {
+        DomainConfigSnapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        Path path = Paths.get(file).toAbsolutePath();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        StoredSnapshot stored = new StoredSnapshot(System.currentTimeMillis(), snapshot.getRevision(),
+            new ArrayList<>(snapshot.getAll()), snapshot.getDeletedRevisions());
+        try {
+            Files.createDirectories(path.getParent());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                smileMapper.writeValue(out, stored);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Wrote snapshot at revision {} to {}", snapshot.getRevision(), path);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not write snapshot file {}: {}", path, e.getMessage());
+        }
+    }
+    
+    /**
+     * On-disk form of a snapshot
+     */
+    public static class StoredSnapshot {
+        
+        private long writtenAt;
+        private Long revision;
+        private List<DomainConfig> configs;
+        private Map<String, Long> deletedRevisions;
+        
+        public StoredSnapshot() {
+        }
+        
+        public StoredSnapshot(long writtenAt, Long revision, List<DomainConfig> configs, Map<String, Long> deletedRevisions) {
+            this.writtenAt = writtenAt;
+            this.revision = revision;
+            this.configs = configs;
+            this.deletedRevisions = deletedRevisions;
+        }
+        
+        // Getters and Setters
+        public long getWrittenAt() { return writtenAt; }
+        public void setWrittenAt(long writtenAt) { this.writtenAt = writtenAt; }
+        
+        /**
+         * Revision up to which the stored changes are complete; null in files written before it was recorded
+         */
+        public Long getRevision() { return revision; }
+        public void setRevision(Long revision) { this.revision = revision; }
+        
+        public List<DomainConfig> getConfigs() { return configs; }
+        public void setConfigs(List<DomainConfig> configs) { this.configs = configs; }
+        
+        public Map<String, Long> getDeletedRevisions() { return deletedRevisions; }
+        public void setDeletedRevisions(Map<String, Long> deletedRevisions) { this.deletedRevisions = deletedRevisions; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.tinysteps.domainconfig.service;
+
+import com.tinysteps.domainconfig.repository.DomainConfigRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically checks the {@link DomainConfigSnapshot} against the database.
+ * A snapshot restored from disk is replaced by a database load as soon as the
+ * database answers. After that, a snapshot that stays behind the highest
+ * database revision for two checks has missed a change event and is
+ * resynchronized. A gap in the applied revisions that is not filled within
+ * {@code domain.config.snapshot.gap-timeout} is a revision that was rolled
+ * back or whose event was lost, and is resolved the same way. The time since
+ * the last successful check is published as
+ * {@code domain.config.snapshot.staleness}.
+ */
+@Component
+public class DomainConfigSnapshotVerifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainConfigSnapshotVerifier.class);
+    
+    @Autowired
+    private DomainConfigSnapshotService snapshotService;
+    
+    @Autowired
+    private DomainConfigCacheInvalidator cacheInvalidator;
+    
+    @Autowired
+    private DomainConfigRepository domainConfigRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${domain.config.snapshot.verify-interval:30s}")
+    private Duration verifyInterval;
+    
+    @Value("${domain.config.snapshot.gap-timeout:2s}")
+    private Duration gapTimeout;
+    
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-verifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    /**
+     * Database revision the snapshot was found behind at the previous check, 0 if it was current
+     */
+    private long laggingRevision;
+    
+    private final AtomicBoolean gapCheckScheduled = new AtomicBoolean();
+    
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("domain.config.snapshot.staleness", snapshotService, DomainConfigSnapshotVerifier::staleness)
+            .description("Time since the snapshot was last confirmed against the database")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::verify, 0, verifyInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+    
+    @EventListener
+    public void onSnapshotUpdated(SnapshotUpdatedEvent event) {
+        scheduleGapCheck(event.getSnapshot());
+    }
+    
+    private void scheduleGapCheck(DomainConfigSnapshot snapshot) {
+        if (snapshot.hasGap() && gapCheckScheduled.compareAndSet(false, true)) {
+            long awaitedRevision = snapshot.getLatestRevision();
+            scheduler.schedule(() -> checkGap(awaitedRevision), gapTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    void checkGap(long awaitedRevision) {
+        gapCheckScheduled.set(false);
+        try {
+            DomainConfigSnapshot snapshot = snapshotService.getSnapshot();
+            if (snapshot.getRevision() < awaitedRevision) {
+                logger.warn("Snapshot stuck at revision {} below applied revision {}, resynchronizing",
+                    snapshot.getRevision(), awaitedRevision);
+                cacheInvalidator.onResync();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not resolve a gap in the applied revisions: {}", e.getMessage());
+        }
+        // Retries a failed resync, and covers gaps opened since this check was scheduled
+        scheduleGapCheck(snapshotService.getSnapshot());
+    }
+    
+    void verify() {
+        try {
+            if (snapshotService.isRestored()) {
+                logger.info("Replacing the restored snapshot with the database state");
+                cacheInvalidator.onResync();
+                return;
+            }
+            
+            long snapshotRevision = snapshotService.getSnapshot().getRevision();
+            long databaseRevision = domainConfigRepository.findMaxRevision();
+            if (databaseRevision <= snapshotRevision) {
+                laggingRevision = 0;
+                snapshotService.markVerified();
+            } else if (laggingRevision > 0 && snapshotRevision < laggingRevision) {
+                logger.warn("Snapshot at revision {} missed changes up to revision {}, resynchronizing",
+                    snapshotRevision, laggingRevision);
+                laggingRevision = 0;
+                cacheInvalidator.onResync();
+            } else {
+                // Possibly a commit whose change event is still being applied; look again next time
+                laggingRevision = databaseRevision;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not verify the snapshot against the database, serving last known good data: {}",
+                e.getMessage());
+        }
+    }
+    
+    private static double staleness(DomainConfigSnapshotService snapshotService) {
+        long verifiedAt = snapshotService.getVerifiedAt();
+        return verifiedAt == 0 ? Double.NaN : (System.currentTimeMillis() - verifiedAt) / 1000.0;
+    }
+}
\ No newline at end of file
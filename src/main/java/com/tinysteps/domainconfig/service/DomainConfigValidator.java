@@ -0,0 +1,120 @@
+package com.tinysteps.domainconfig.service;
+
+import com.tinysteps.domainconfig.model.DomainConfig;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Stateless, non-transactional validation of a domain configuration. Safe to
+ * call from several threads at once.
+ */
+@Component
+public class DomainConfigValidator {
+    
+    @Autowired
+    private Validator validator;
+    
+    /**
+     * Check bean constraints and required fields, returning the first problem
+     * found or null when the configuration is valid
+     */
+    public String validate(DomainConfig config) {
+        Set<ConstraintViolation<DomainConfig>> violations = validator.validate(config);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<DomainConfig> violation = violations.iterator().next();
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        return findMissingField(config);
+    }
+    
+    /**
+     * Check the fields every domain must define and that workflow transitions
+     * only lead to defined states, returning a message for the first problem
+     * found or null when there is none
+     */
+    public String findMissingField(DomainConfig config) {
+        if (isBlank(config.getDomainName())) {
+            return "Domain name is required";
+        }
+        
+        if (config.getEntities() == null) {
+            return "Entities configuration is required";
+        }
+        
+        if (config.getWorkflows() == null) {
+            return "Workflows configuration is required";
+        }
+        
+        if (config.getTerminology() == null) {
+            return "Terminology configuration is required";
+        }
+        
+        // Validate entities
+        DomainConfig.DomainEntities entities = config.getEntities();
+        if (entities.getUserRoles() == null || entities.getUserRoles().isEmpty()) {
+            return "User roles are required";
+        }
+        
+        for (DomainConfig.UserRole userRole : entities.getUserRoles()) {
+            if (userRole == null || isBlank(userRole.getRole())) {
+                return "User role name is required";
+            }
+        }
+        
+        if (isBlank(entities.getContextType())) {
+            return "Context type is required";
+        }
+        
+        if (isBlank(entities.getTransactionType())) {
+            return "Transaction type is required";
+        }
+        
+        // Validate workflows
+        DomainConfig.DomainWorkflows workflows = config.getWorkflows();
+        if (workflows.getTransactionStates() == null || workflows.getTransactionStates().isEmpty()) {
+            return "Transaction states are required";
+        }
+        
+        Set<String> states = new HashSet<>();
+        for (DomainConfig.TransactionState state : workflows.getTransactionStates()) {
+            if (state == null || isBlank(state.getState())) {
+                return "Transaction state name is required";
+            }
+            states.add(state.getState());
+        }
+        for (DomainConfig.TransactionState state : workflows.getTransactionStates()) {
+            if (state.getNextStates() != null) {
+                for (String nextState : state.getNextStates()) {
+                    if (!states.contains(nextState)) {
+                        return "Transaction state '" + state.getState() + "' leads to unknown state '" + nextState + "'";
+                    }
+                }
+            }
+        }
+        
+        // Validate terminology
+        DomainConfig.DomainTerminology terminology = config.getTerminology();
+        if (isBlank(terminology.getUserPrimary())) {
+            return "Primary user terminology is required";
+        }
+        
+        if (isBlank(terminology.getContext())) {
+            return "Context terminology is required";
+        }
+        
+        if (isBlank(terminology.getTransaction())) {
+            return "Transaction terminology is required";
+        }
+        
+        return null;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.tinysteps.domainconfig.service;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Encodings a single domain configuration can be served in. Each one is
+ * cached pre-encoded per domain in its own response cache.
+ */
+public enum ResponseFormat {
+    
+    JSON(MediaType.APPLICATION_JSON, "domainConfigResponses"),
+    CBOR(MediaType.APPLICATION_CBOR, "domainConfigCborResponses"),
+    SMILE(new MediaType("application", "x-jackson-smile"), "domainConfigSmileResponses");
+    
+    private final MediaType mediaType;
+    private final String cacheName;
+    
+    ResponseFormat(MediaType mediaType, String cacheName) {
+        this.mediaType = mediaType;
+        this.cacheName = cacheName;
+    }
+    
+    public MediaType getMediaType() { return mediaType; }
+    
+    public String getCacheName() { return cacheName; }
+    
+    /**
+     * Pick the format for an Accept header by quality, then specificity. JSON
+     * wins ties against wildcards, so browsers keep getting JSON; it is also
+     * the fallback when the header is missing or names no supported type.
+     */
+    public static ResponseFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        
+        ResponseFormat best = JSON;
+        MediaType bestMatch = null;
+        for (MediaType accepted : acceptedTypes) {
+            if (accepted.getQualityValue() <= 0) {
+                continue;
+            }
+            for (ResponseFormat format : values()) {
+                if (accepted.includes(format.mediaType) && (bestMatch == null || isPreferred(accepted, bestMatch))) {
+                    best = format;
+                    bestMatch = accepted;
+                }
+            }
+        }
+        return best;
+    }
+    
+    private static boolean isPreferred(MediaType candidate, MediaType current) {
+        if (candidate.getQualityValue() != current.getQualityValue()) {
+            return candidate.getQualityValue() > current.getQualityValue();
+        }
+        return current.isWildcardSubtype() && !candidate.isWildcardSubtype();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.tinysteps.domainconfig.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published whenever a new {@link DomainConfigSnapshot} becomes current,
+ * either after a (re)load or after a committed change to a domain.
+ */
+public class SnapshotUpdatedEvent extends ApplicationEvent {
+    
+    private final DomainConfigSnapshot snapshot;
+    
+    public SnapshotUpdatedEvent(Object source, DomainConfigSnapshot snapshot) {
+        super(source);
+        this.snapshot = snapshot;
+    }
+    
+    public DomainConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
\ No newline at end of file
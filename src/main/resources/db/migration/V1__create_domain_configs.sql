@@ -0,0 +1,16 @@
+-- Schema of the releases before Flyway, as created by Hibernate's ddl-auto;
+-- existing databases are baselined at this version (spring.flyway.baseline-on-migrate),
+-- new ones run it
+CREATE TABLE IF NOT EXISTS domain_configs (
+    id              VARCHAR(255) NOT NULL PRIMARY KEY,
+    domain_name     VARCHAR(255) CONSTRAINT uk_domain_configs_domain_name UNIQUE,
+    display_name    VARCHAR(255),
+    description     VARCHAR(255),
+    entities        JSONB,
+    workflows       JSONB,
+    terminology     JSONB,
+    custom_settings JSONB,
+    is_active       BOOLEAN,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6)
+);
\ No newline at end of file
@@ -0,0 +1,22 @@
+-- Optimistic locking and change feed revisions. Databases that were last
+-- started before Flyway by a release with these columns already have them.
+ALTER TABLE domain_configs ADD COLUMN IF NOT EXISTS version BIGINT;
+ALTER TABLE domain_configs ADD COLUMN IF NOT EXISTS revision BIGINT;
+
+-- Service-wide revision counter for the change feed (see DomainConfigRepository.nextRevision)
+CREATE SEQUENCE IF NOT EXISTS domain_config_revision_seq;
+
+-- Indexes for the jsonb lookups in DomainConfigRepository. Only active rows
+-- are indexed, matching the is_active filter every lookup carries.
+
+-- Context and transaction type lookups compare the extracted text (->>)
+CREATE INDEX IF NOT EXISTS idx_domain_configs_context_type
+    ON domain_configs ((entities ->> 'context_type')) WHERE is_active;
+
+CREATE INDEX IF NOT EXISTS idx_domain_configs_transaction_type
+    ON domain_configs ((entities ->> 'transaction_type')) WHERE is_active;
+
+-- Workflow flags are matched by containment (@>), e.g. {"payment_required": true};
+-- jsonb_path_ops only supports @>, in exchange for a smaller, faster index
+CREATE INDEX IF NOT EXISTS idx_domain_configs_workflows
+    ON domain_configs USING gin (workflows jsonb_path_ops) WHERE is_active;
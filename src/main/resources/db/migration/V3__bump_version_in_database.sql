@@ -0,0 +1,17 @@
+-- The per-domain version is counted by the database. A writer that starts
+-- from a stale copy of the row can then neither repeat nor lower it.
+UPDATE domain_configs SET version = 0 WHERE version IS NULL;
+ALTER TABLE domain_configs ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE domain_configs ALTER COLUMN version SET NOT NULL;
+
+CREATE OR REPLACE FUNCTION domain_configs_bump_version() RETURNS trigger AS $$
+BEGIN
+    NEW.version := OLD.version + 1;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS domain_configs_bump_version ON domain_configs;
+CREATE TRIGGER domain_configs_bump_version
+    BEFORE UPDATE ON domain_configs
+    FOR EACH ROW EXECUTE FUNCTION domain_configs_bump_version();
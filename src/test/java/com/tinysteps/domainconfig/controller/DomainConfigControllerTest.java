@@ -0,0 +1,31 @@
+package com.tinysteps.domainconfig.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DomainConfigControllerTest {
+    
+    @Test
+    void ifMatchKeepsStrongTagsWithTheirQuotes() {
+        assertThat(DomainConfigController.strongEntityTags("\"abc\", W/\"weak\",\"def-gzip\""))
+            .containsExactly("\"abc\"", "\"def-gzip\"");
+    }
+    
+    @Test
+    void ifMatchWildcardMatchesAnyVersion() {
+        assertThat(DomainConfigController.strongEntityTags(" * ")).isNull();
+    }
+    
+    @Test
+    void ifMatchDoesNotMatchOnSubstrings() {
+        assertThat(DomainConfigController.strongEntityTags("\"abc\"")).doesNotContain("abc", "\"ab\"");
+    }
+    
+    @Test
+    void malformedIfMatchMatchesNothing() {
+        assertThat(DomainConfigController.strongEntityTags("abc")).isEmpty();
+        assertThat(DomainConfigController.strongEntityTags("\"abc")).isEmpty();
+        assertThat(DomainConfigController.strongEntityTags("W/\"weak\"")).isEmpty();
+    }
+}
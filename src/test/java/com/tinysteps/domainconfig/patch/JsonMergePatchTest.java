@@ -0,0 +1,58 @@
+package com.tinysteps.domainconfig.patch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonMergePatchTest {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    @Test
+    void mergesObjectsMemberByMember() {
+        JsonNode result = JsonMergePatch.apply(
+            json("{\"displayName\": \"Healthcare\", \"entities\": {\"contextType\": \"clinic\", \"resourceType\": \"bed\"}}"),
+            json("{\"entities\": {\"resourceType\": \"room\", \"transactionType\": \"visit\"}}"));
+        
+        assertThat(result).isEqualTo(json(
+            "{\"displayName\": \"Healthcare\", \"entities\": {\"contextType\": \"clinic\", \"resourceType\": \"room\", \"transactionType\": \"visit\"}}"));
+    }
+    
+    @Test
+    void nullRemovesAMember() {
+        JsonNode result = JsonMergePatch.apply(
+            json("{\"displayName\": \"Healthcare\", \"description\": \"Clinics\"}"),
+            json("{\"description\": null}"));
+        
+        assertThat(result).isEqualTo(json("{\"displayName\": \"Healthcare\"}"));
+    }
+    
+    @Test
+    void replacesArraysAndScalarsWhole() {
+        JsonNode result = JsonMergePatch.apply(
+            json("{\"roles\": [\"nurse\", \"admin\"], \"settings\": \"none\"}"),
+            json("{\"roles\": [\"doctor\"], \"settings\": {\"limit\": 5, \"unused\": null}}"));
+        
+        assertThat(result).isEqualTo(json("{\"roles\": [\"doctor\"], \"settings\": {\"limit\": 5}}"));
+    }
+    
+    @Test
+    void leavesTheTargetUntouched() {
+        JsonNode target = json("{\"entities\": {\"contextType\": \"clinic\"}}");
+        
+        JsonMergePatch.apply(target, json("{\"entities\": {\"contextType\": null}}"));
+        
+        assertThat(target).isEqualTo(json("{\"entities\": {\"contextType\": \"clinic\"}}"));
+    }
+    
+    private static JsonNode json(String content) {
+        try {
+            return MAPPER.readTree(content);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
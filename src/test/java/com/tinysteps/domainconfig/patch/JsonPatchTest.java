@@ -0,0 +1,96 @@
+package com.tinysteps.domainconfig.patch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonPatchTest {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private static final String DOCUMENT = """
+        {"displayName": "Healthcare",
+         "entities": {"contextType": "clinic", "secondaryUserRoles": ["nurse", "admin"]}}""";
+    
+    @Test
+    void appliesOperationsInOrder() {
+        JsonNode result = JsonPatch.apply(json(DOCUMENT), json("""
+            [{"op": "test", "path": "/displayName", "value": "Healthcare"},
+             {"op": "replace", "path": "/displayName", "value": "Health"},
+             {"op": "add", "path": "/entities/secondaryUserRoles/1", "value": "doctor"},
+             {"op": "add", "path": "/entities/secondaryUserRoles/-", "value": "receptionist"},
+             {"op": "remove", "path": "/entities/secondaryUserRoles/0"},
+             {"op": "copy", "from": "/entities/contextType", "path": "/entities/resourceType"},
+             {"op": "move", "from": "/entities/contextType", "path": "/entities/transactionType"}]"""));
+        
+        assertThat(result).isEqualTo(json("""
+            {"displayName": "Health",
+             "entities": {"secondaryUserRoles": ["doctor", "admin", "receptionist"],
+                          "resourceType": "clinic", "transactionType": "clinic"}}"""));
+    }
+    
+    @Test
+    void leavesTheDocumentUntouched() {
+        JsonNode document = json(DOCUMENT);
+        
+        JsonPatch.apply(document, json("[{\"op\": \"remove\", \"path\": \"/entities\"}]"));
+        
+        assertThat(document).isEqualTo(json(DOCUMENT));
+    }
+    
+    @Test
+    void comparesNumbersByValueInTest() {
+        JsonNode result = JsonPatch.apply(json("{\"limit\": 10}"),
+            json("[{\"op\": \"test\", \"path\": \"/limit\", \"value\": 10.0}]"));
+        
+        assertThat(result).isEqualTo(json("{\"limit\": 10}"));
+    }
+    
+    @Test
+    void rejectsAFailedTest() {
+        assertThatThrownBy(() -> JsonPatch.apply(json(DOCUMENT),
+            json("[{\"op\": \"test\", \"path\": \"/displayName\", \"value\": \"Retail\"}]")))
+            .isInstanceOf(JsonPatchException.class);
+    }
+    
+    @Test
+    void rejectsReplacingAMissingMember() {
+        assertThatThrownBy(() -> JsonPatch.apply(json(DOCUMENT),
+            json("[{\"op\": \"replace\", \"path\": \"/description\", \"value\": \"x\"}]")))
+            .isInstanceOf(JsonPatchException.class);
+    }
+    
+    @Test
+    void rejectsAnOutOfBoundsIndex() {
+        assertThatThrownBy(() -> JsonPatch.apply(json(DOCUMENT),
+            json("[{\"op\": \"add\", \"path\": \"/entities/secondaryUserRoles/3\", \"value\": \"x\"}]")))
+            .isInstanceOf(JsonPatchException.class);
+    }
+    
+    @Test
+    void rejectsMovingIntoOwnChild() {
+        assertThatThrownBy(() -> JsonPatch.apply(json(DOCUMENT),
+            json("[{\"op\": \"move\", \"from\": \"/entities\", \"path\": \"/entities/nested\"}]")))
+            .isInstanceOf(JsonPatchException.class);
+    }
+    
+    @Test
+    void rejectsUnknownOperationsAndNonArrays() {
+        assertThatThrownBy(() -> JsonPatch.apply(json(DOCUMENT), json("[{\"op\": \"merge\", \"path\": \"/x\"}]")))
+            .isInstanceOf(JsonPatchException.class);
+        assertThatThrownBy(() -> JsonPatch.apply(json(DOCUMENT), json("{\"op\": \"remove\", \"path\": \"/x\"}")))
+            .isInstanceOf(JsonPatchException.class);
+    }
+    
+    private static JsonNode json(String content) {
+        try {
+            return MAPPER.readTree(content);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
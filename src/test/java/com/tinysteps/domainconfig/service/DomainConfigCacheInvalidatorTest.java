@@ -0,0 +1,114 @@
+package com.tinysteps.domainconfig.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tinysteps.domainconfig.invalidation.InvalidationBus;
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.repository.DomainConfigRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DomainConfigCacheInvalidatorTest {
+    
+    private static final List<String> DOMAINS = List.of("healthcare", "ecommerce", "cab-booking");
+    
+    private CaffeineCacheManager cacheManager;
+    private DomainConfigSnapshotService snapshotService;
+    private DomainConfigRepository domainConfigRepository;
+    private InvalidationBus invalidationBus;
+    private DomainConfigService domainConfigService;
+    
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder().recordStats());
+        List<String> cacheNames = new ArrayList<>(List.of(DomainConfigCacheInvalidator.DOMAIN_CACHES));
+        cacheNames.addAll(List.of(DomainConfigCacheInvalidator.AGGREGATE_CACHES));
+        cacheManager.setCacheNames(cacheNames);
+        
+        snapshotService = mock(DomainConfigSnapshotService.class);
+        domainConfigRepository = mock(DomainConfigRepository.class);
+        invalidationBus = mock(InvalidationBus.class);
+        when(invalidationBus.getInstanceId()).thenReturn("replica-a");
+        when(domainConfigRepository.nextRevision()).thenReturn(42L);
+        when(domainConfigRepository.saveAndFlush(any(DomainConfig.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        DomainConfigCacheInvalidator cacheInvalidator = new DomainConfigCacheInvalidator();
+        ReflectionTestUtils.setField(cacheInvalidator, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(cacheInvalidator, "snapshotService", snapshotService);
+        ReflectionTestUtils.setField(cacheInvalidator, "domainConfigRepository", domainConfigRepository);
+        ReflectionTestUtils.setField(cacheInvalidator, "invalidationBus", invalidationBus);
+        
+        domainConfigService = new DomainConfigService();
+        ReflectionTestUtils.setField(domainConfigService, "domainConfigRepository", domainConfigRepository);
+        ReflectionTestUtils.setField(domainConfigService, "cacheInvalidator", cacheInvalidator);
+    }
+    
+    @Test
+    void savingOneDomainOnlyMissesForThatDomain() {
+        for (String domainName : DOMAINS) {
+            for (String cacheName : DomainConfigCacheInvalidator.DOMAIN_CACHES) {
+                cacheManager.getCache(cacheName).put(domainName, domainName + "@" + cacheName);
+            }
+        }
+        for (String cacheName : DomainConfigCacheInvalidator.AGGREGATE_CACHES) {
+            cacheManager.getCache(cacheName).put(1L, "aggregate");
+        }
+        
+        for (String domainName : DOMAINS) {
+            assertThat(missesLookingUp(domainName)).as("misses for %s before the write", domainName).isZero();
+        }
+        
+        domainConfigService.saveDomainConfig(domainConfig("healthcare"));
+        
+        assertThat(missesLookingUp("healthcare")).isEqualTo(DomainConfigCacheInvalidator.DOMAIN_CACHES.length);
+        assertThat(missesLookingUp("ecommerce")).isZero();
+        assertThat(missesLookingUp("cab-booking")).isZero();
+        for (String cacheName : DomainConfigCacheInvalidator.AGGREGATE_CACHES) {
+            assertThat(cacheManager.getCache(cacheName).get(1L)).as(cacheName).isNull();
+        }
+        verify(snapshotService).apply(eq("healthcare"), any(DomainConfig.class), eq(42L));
+    }
+    
+    @Test
+    void savingOneDomainBroadcastsItsRevision() {
+        domainConfigService.saveDomainConfig(domainConfig("healthcare"));
+        
+        verify(invalidationBus).publish(argThat(event ->
+            "healthcare".equals(event.getDomainName()) && event.getRevision() == 42L));
+    }
+    
+    /**
+     * Look the domain up in every per-domain cache and count the misses
+     */
+    private long missesLookingUp(String domainName) {
+        long misses = 0;
+        for (String cacheName : DomainConfigCacheInvalidator.DOMAIN_CACHES) {
+            CaffeineCache cache = (CaffeineCache) cacheManager.getCache(cacheName);
+            long before = cache.getNativeCache().stats().missCount();
+            cache.get(domainName);
+            misses += cache.getNativeCache().stats().missCount() - before;
+        }
+        return misses;
+    }
+    
+    private static DomainConfig domainConfig(String domainName) {
+        DomainConfig domainConfig = new DomainConfig();
+        domainConfig.setDomainName(domainName);
+        domainConfig.setIsActive(true);
+        return domainConfig;
+    }
+}
@@ -0,0 +1,95 @@
+package com.tinysteps.domainconfig.service;
+
+import com.tinysteps.domainconfig.model.DomainConfig;
+import com.tinysteps.domainconfig.model.DomainConfigChange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DomainConfigSnapshotTest {
+    
+    @Test
+    void revisionStaysBelowAGap() {
+        DomainConfigSnapshot snapshot = DomainConfigSnapshot.of(List.of(config("healthcare", 1), config("ecommerce", 2)), Map.of())
+            .withChange("cab-booking", config("cab-booking", 4), 4);
+        
+        assertThat(snapshot.getRevision()).isEqualTo(2);
+        assertThat(snapshot.getLatestRevision()).isEqualTo(4);
+        assertThat(snapshot.hasGap()).isTrue();
+        assertThat(snapshot.getDomainConfig("cab-booking")).isNotNull();
+        assertThat(snapshot.getChangesSince(2L)).isEmpty();
+    }
+    
+    @Test
+    void fillingTheGapReleasesLaterChanges() {
+        DomainConfigSnapshot snapshot = DomainConfigSnapshot.of(List.of(config("healthcare", 1), config("ecommerce", 2)), Map.of())
+            .withChange("cab-booking", config("cab-booking", 4), 4)
+            .withChange("retail", config("retail", 3), 3);
+        
+        assertThat(snapshot.getRevision()).isEqualTo(4);
+        assertThat(snapshot.hasGap()).isFalse();
+        assertThat(snapshot.getChangesSince(2L)).extracting(DomainConfigChange::getDomainName)
+            .containsExactly("retail", "cab-booking");
+    }
+    
+    @Test
+    void olderChangeToADomainOnlyFillsItsRevision() {
+        DomainConfigSnapshot snapshot = DomainConfigSnapshot.of(List.of(config("healthcare", 1)), Map.of())
+            .withChange("healthcare", config("healthcare", 3), 3)
+            .withChange("healthcare", config("healthcare", 2), 2);
+        
+        assertThat(snapshot.getDomainConfig("healthcare").getRevision()).isEqualTo(3L);
+        assertThat(snapshot.getRevision()).isEqualTo(3);
+        assertThat(snapshot.hasGap()).isFalse();
+        assertThat(snapshot.getChangesSince(1L)).extracting(DomainConfigChange::getRevision).containsExactly(3L);
+    }
+    
+    @Test
+    void deletionsAreListedAtTheirRevision() {
+        DomainConfigSnapshot snapshot = DomainConfigSnapshot.of(List.of(config("healthcare", 1), config("ecommerce", 2)), Map.of())
+            .withChange("ecommerce", null, 3);
+        
+        assertThat(snapshot.getDomainConfig("ecommerce")).isNull();
+        assertThat(snapshot.getDeletedRevisions()).containsEntry("ecommerce", 3L);
+        List<DomainConfigChange> changes = snapshot.getChangesSince(2L);
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).getDomainName()).isEqualTo("ecommerce");
+        assertThat(changes.get(0).isDeleted()).isTrue();
+    }
+    
+    @Test
+    void acknowledgedRevisionFillsAGap() {
+        DomainConfigSnapshot snapshot = DomainConfigSnapshot.of(List.of(config("healthcare", 1), config("ecommerce", 3)), Map.of(), 1L);
+        
+        assertThat(snapshot.getRevision()).isEqualTo(1);
+        assertThat(snapshot.hasGap()).isTrue();
+        assertThat(snapshot.getChangesSince(1L)).isEmpty();
+        
+        DomainConfigSnapshot filled = snapshot.withRevision(2);
+        
+        assertThat(filled.getRevision()).isEqualTo(3);
+        assertThat(filled.hasGap()).isFalse();
+        assertThat(filled.getChangesSince(1L)).extracting(DomainConfigChange::getDomainName).containsExactly("ecommerce");
+        assertThat(filled.withRevision(2)).isSameAs(filled);
+    }
+    
+    @Test
+    void nullSinceListsEveryActiveDomain() {
+        DomainConfigSnapshot snapshot = DomainConfigSnapshot.of(List.of(config("healthcare", 1)), Map.of("retail", 2L))
+            .withChange("ecommerce", config("ecommerce", 5), 5);
+        
+        assertThat(snapshot.getChangesSince(null)).extracting(DomainConfigChange::getDomainName)
+            .containsExactly("healthcare", "ecommerce");
+    }
+    
+    private static DomainConfig config(String domainName, long revision) {
+        DomainConfig config = new DomainConfig();
+        config.setDomainName(domainName);
+        config.setIsActive(true);
+        config.setRevision(revision);
+        return config;
+    }
+}
@@ -0,0 +1,46 @@
+package com.tinysteps.domainconfig.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseFormatTest {
+    
+    @Test
+    void fallsBackToJson() {
+        assertThat(ResponseFormat.negotiate(null)).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate(" ")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("text/html")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("not a media type;;")).isEqualTo(ResponseFormat.JSON);
+    }
+    
+    @Test
+    void picksTheNamedBinaryFormat() {
+        assertThat(ResponseFormat.negotiate("application/cbor")).isEqualTo(ResponseFormat.CBOR);
+        assertThat(ResponseFormat.negotiate("application/x-jackson-smile")).isEqualTo(ResponseFormat.SMILE);
+    }
+    
+    @Test
+    void prefersHigherQuality() {
+        assertThat(ResponseFormat.negotiate("application/cbor, application/json;q=0.5")).isEqualTo(ResponseFormat.CBOR);
+        assertThat(ResponseFormat.negotiate("application/cbor;q=0.4, application/json;q=0.5")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("application/json;q=0.5, application/x-jackson-smile")).isEqualTo(ResponseFormat.SMILE);
+    }
+    
+    @Test
+    void prefersSpecificTypesOverWildcardsOfEqualQuality() {
+        assertThat(ResponseFormat.negotiate("*/*, application/cbor")).isEqualTo(ResponseFormat.CBOR);
+        assertThat(ResponseFormat.negotiate("application/*, application/x-jackson-smile")).isEqualTo(ResponseFormat.SMILE);
+    }
+    
+    @Test
+    void keepsJsonForWildcards() {
+        assertThat(ResponseFormat.negotiate("*/*")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("text/html, application/xhtml+xml, */*;q=0.8")).isEqualTo(ResponseFormat.JSON);
+    }
+    
+    @Test
+    void ignoresRefusedTypes() {
+        assertThat(ResponseFormat.negotiate("application/cbor;q=0, */*;q=0.1")).isEqualTo(ResponseFormat.JSON);
+    }
+}